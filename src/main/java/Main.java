@@ -1,21 +1,38 @@
+import models.CsvProfile;
 import models.Person;
 import service.CSVReaderService;
+import service.PersonOrder;
 import service.impl.CSVReaderServiceImpl;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class Main {
 
+    private static final int PROFILE_SAMPLE_ROWS = 10_000;
+    private static final Duration PROFILE_TIME_BUDGET = Duration.ofSeconds(2);
+    private static final int TOP_SALARIES_PER_DEPARTMENT = 3;
+
     public static void main(String[] args) {
         System.out.println("=== CSV READER - ОБРАБОТКА ФАЙЛА С СОТРУДНИКАМИ ===");
 
-        // Имя файла - укажите ваше имя файла
-        String csvFileName = "people.csv"; // или "employees.csv" или другое имя вашего файла
+        // Имя файла: первый аргумент или people.csv из ресурсов
+        String csvFileName = args.length > 0 ? args[0] : "people.csv";
 
-        CSVReaderService csvReaderService = new CSVReaderServiceImpl();
+        // -Dcsv.beanValidation=false ускоряет запуск: Hibernate Validator не загружается
+        boolean beanValidation = Boolean.parseBoolean(System.getProperty("csv.beanValidation", "true"));
+        CSVReaderService csvReaderService = new CSVReaderServiceImpl(beanValidation);
+        // -Dcsv.profile=true печатает профиль по выборке до полной загрузки; это лишний проход по файлу
+        boolean printProfile = Boolean.parseBoolean(System.getProperty("csv.profile", "false"));
 
         try {
+            if (printProfile) {
+                CsvProfile profile = csvReaderService.profile(csvFileName, PROFILE_SAMPLE_ROWS, PROFILE_TIME_BUDGET);
+                printProfile(profile);
+            }
+
             // Чтение данных из CSV
             List<Person> people = csvReaderService.readPeopleFromCSV(csvFileName);
 
@@ -126,6 +143,16 @@ public class Main {
                         lowestPaid.getName(), lowestPaid.getSalary());
             }
 
+            // Потоковый top-K: самые высокие зарплаты в каждом подразделении без загрузки всего файла
+            System.out.println("\n" + "=".repeat(80));
+            System.out.printf("ТОП-%d ЗАРПЛАТ ПО ПОДРАЗДЕЛЕНИЯМ%n", TOP_SALARIES_PER_DEPARTMENT);
+            System.out.println("=".repeat(80));
+
+            csvReaderService.topKPerDepartment(csvFileName, PersonOrder.SALARY.descending(), TOP_SALARIES_PER_DEPARTMENT)
+                    .forEach((dept, top) -> System.out.printf("%-25s | %s%n", dept.getName(), top.stream()
+                            .map(p -> String.format("%s (%.0f)", p.getName(), p.getSalary()))
+                            .collect(Collectors.joining(", "))));
+
         } catch (Exception e) {
             System.err.println("ОШИБКА: " + e.getMessage());
             e.printStackTrace();
@@ -139,4 +166,24 @@ public class Main {
             System.err.println("5. Файл поврежден или имеет некорректный формат");
         }
     }
-}
\ No newline at end of file
+
+    private static void printProfile(CsvProfile profile) {
+        System.out.println("=".repeat(80));
+        System.out.println("ПРОФИЛЬ ФАЙЛА");
+        System.out.println("=".repeat(80));
+
+        System.out.printf("Метод: %s%s, выборка: %d строк за %d мс%n", profile.getMethod(),
+                profile.isExact() ? " (весь файл)" : "", profile.getSampledRows(), profile.getElapsed().toMillis());
+        System.out.printf("Оценка количества строк: %d%n", profile.getEstimatedRowCount());
+        System.out.printf("Подразделений: %d в выборке, оценка для файла: %d%n",
+                profile.getSampledDepartments(), profile.getEstimatedDepartments());
+
+        System.out.println("Доля ошибок по столбцам:");
+        profile.getColumnErrorRates().forEach((column, rate) ->
+                System.out.printf("  %-10s %6.2f%%%n", column, rate * 100));
+
+        System.out.println("Форматы дат:");
+        profile.getDateFormats().forEach((format, count) ->
+                System.out.printf("  %-12s %d%n", format, count));
+    }
+}
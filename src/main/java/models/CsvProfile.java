@@ -0,0 +1,55 @@
+package models;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Профиль CSV-файла, построенный по выборке строк.
+ * <p>
+ * Позволяет за секунды оценить файл любого размера и подобрать настройки
+ * парсера до полной загрузки. Если файл был прочитан целиком
+ * ({@link #isExact()}), все значения точные.
+ * </p>
+ */
+@Value
+@Builder
+public class CsvProfile {
+
+    /** Способ получения выборки */
+    public enum Method {
+        /** Последовательное чтение потока: в профиль попадает каждая прочитанная строка */
+        SEQUENTIAL,
+        /** Случайные переходы по смещениям в файле на диске */
+        RANDOM_SEEK
+    }
+
+    /** Способ получения выборки */
+    Method method;
+
+    /** true, если файл прочитан целиком и оценки совпадают с точными значениями */
+    boolean exact;
+
+    /** Количество строк, по которым построен профиль */
+    long sampledRows;
+
+    /** Оценка количества строк данных в файле (без заголовка) */
+    long estimatedRowCount;
+
+    /** Доля строк выборки с ошибкой в столбце: имя столбца → доля от 0 до 1 */
+    Map<String, Double> columnErrorRates;
+
+    /** Распределение форматов даты рождения: шаблон → количество строк выборки */
+    Map<String, Long> dateFormats;
+
+    /** Количество различных подразделений в выборке */
+    int sampledDepartments;
+
+    /** Оценка количества подразделений во всём файле (Chao1) */
+    long estimatedDepartments;
+
+    /** Время построения профиля */
+    Duration elapsed;
+}
@@ -1,13 +1,26 @@
 package service;
 
+import models.CsvProfile;
 import models.Department;
 import models.Person;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface CSVReaderService {
     List<Person> readPeopleFromCSV(String csvFilePath) throws IOException;
+    List<Person> readPeopleFromCSV(String csvFilePath, DuplicatePolicy duplicatePolicy) throws IOException;
+    List<Person> readPeopleFromCSV(List<String> csvFilePaths, DuplicatePolicy duplicatePolicy) throws IOException;
+    long forEach(String csvFilePath, RowConsumer consumer) throws IOException;
+    CsvProfile profile(String csvFilePath, int maxSampleRows, Duration timeBudget) throws IOException;
+    long sortPeople(String csvFilePath, Comparator<Person> order, long memoryBudgetBytes,
+                    Consumer<Person> consumer) throws IOException;
+    List<Person> topK(String csvFilePath, Comparator<Person> order, int k) throws IOException;
+    Map<Department, List<Person>> topKPerDepartment(String csvFilePath, Comparator<Person> order, int k)
+            throws IOException;
     Map<String, Department> getDepartmentCache();
 }
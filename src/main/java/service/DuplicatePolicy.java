@@ -0,0 +1,16 @@
+package service;
+
+/**
+ * Политика обработки строк с повторяющимся ID сотрудника.
+ * <p>
+ * Дубликаты ищутся по всем файлам одной загрузки.
+ * </p>
+ */
+public enum DuplicatePolicy {
+    /** Повторный ID прерывает загрузку с ошибкой */
+    REJECT,
+    /** Сохраняется первая строка, последующие с тем же ID пропускаются */
+    FIRST_WINS,
+    /** Последняя строка заменяет ранее загруженную (upsert) */
+    LAST_WINS
+}
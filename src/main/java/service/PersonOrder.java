@@ -0,0 +1,113 @@
+package service;
+
+import models.Person;
+
+import java.util.Comparator;
+
+/**
+ * Стандартные порядки сортировки сотрудников для внешней сортировки и top-K.
+ * <p>
+ * Равные по ключу записи упорядочиваются по ID, поэтому результат детерминирован.
+ * Каждый порядок есть и для {@link PersonRow}: он сравнивает строки по примитивным полям,
+ * не создавая объектов, и всегда согласован с порядком на {@link Person}.
+ * </p>
+ */
+public enum PersonOrder {
+    /** По зарплате */
+    SALARY(Comparator.comparing(Person::getSalary), PersonOrder::compareSalary),
+    /** По дате рождения: от старших к младшим */
+    BIRTH_DATE(Comparator.comparing(Person::getBirthDate),
+            Comparator.comparingInt(PersonRow::getBirthYear)
+                    .thenComparingInt(PersonRow::getBirthMonth)
+                    .thenComparingInt(PersonRow::getBirthDay)),
+    /** По названию подразделения */
+    DEPARTMENT(Comparator.comparing((Person person) -> person.getDepartment().getName()),
+            Comparator.comparing((PersonRow row) -> row.getDepartment().getName())),
+    /** По ID */
+    ID(Comparator.comparing(Person::getId), Comparator.comparingLong(PersonRow::getId));
+
+    /** Наибольшая степень десяти, помещающаяся в long */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final Comparator<Person> ascending;
+    private final Comparator<Person> descending;
+    private final Comparator<PersonRow> rowAscending;
+    private final Comparator<PersonRow> rowDescending;
+
+    PersonOrder(Comparator<Person> key, Comparator<PersonRow> rowKey) {
+        // Статические поля enum ещё не инициализированы при создании констант
+        Comparator<Person> byId = Comparator.comparing(Person::getId);
+        this.ascending = key.thenComparing(byId);
+        this.descending = key.reversed().thenComparing(byId);
+
+        Comparator<PersonRow> rowById = Comparator.comparingLong(PersonRow::getId);
+        this.rowAscending = rowKey.thenComparing(rowById);
+        this.rowDescending = rowKey.reversed().thenComparing(rowById);
+    }
+
+    /** @return порядок по возрастанию ключа */
+    public Comparator<Person> ascending() {
+        return ascending;
+    }
+
+    /** @return порядок по убыванию ключа, например самые высокие зарплаты первыми */
+    public Comparator<Person> descending() {
+        return descending;
+    }
+
+    /** @return порядок {@link #ascending()} для строк */
+    public Comparator<PersonRow> rowAscending() {
+        return rowAscending;
+    }
+
+    /** @return порядок {@link #descending()} для строк */
+    public Comparator<PersonRow> rowDescending() {
+        return rowDescending;
+    }
+
+    /**
+     * Находит порядок на строках, совпадающий с порядком на {@link Person}.
+     *
+     * @param order один из порядков {@link #ascending()} или {@link #descending()}
+     * @return тот же порядок для строк или null, если {@code order} получен не из {@link PersonOrder}
+     */
+    public static Comparator<PersonRow> rowOrderOf(Comparator<? super Person> order) {
+        for (PersonOrder value : values()) {
+            if (order == value.ascending) {
+                return value.rowAscending;
+            }
+            if (order == value.descending) {
+                return value.rowDescending;
+            }
+        }
+        return null;
+    }
+
+    /** Сравнивает зарплаты как {@link java.math.BigDecimal#compareTo}, приводя их к общему масштабу */
+    private static int compareSalary(PersonRow a, PersonRow b) {
+        long x = a.getSalaryUnscaled();
+        long y = b.getSalaryUnscaled();
+        int scaleDifference = a.getSalaryScale() - b.getSalaryScale();
+        if (scaleDifference != 0) {
+            int shift = Math.abs(scaleDifference);
+            if (shift > MAX_LONG_DIGITS) {
+                return a.getSalary().compareTo(b.getSalary());
+            }
+            long factor = 1;
+            for (int i = 0; i < shift; i++) {
+                factor *= 10;
+            }
+            try {
+                if (scaleDifference < 0) {
+                    x = Math.multiplyExact(x, factor);
+                } else {
+                    y = Math.multiplyExact(y, factor);
+                }
+            } catch (ArithmeticException overflow) {
+                // Редкий случай: при общем масштабе число не помещается в long
+                return a.getSalary().compareTo(b.getSalary());
+            }
+        }
+        return Long.compare(x, y);
+    }
+}
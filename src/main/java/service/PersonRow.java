@@ -0,0 +1,70 @@
+package service;
+
+import models.Department;
+import models.Person;
+import models.enums.Gender;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Представление строки CSV о сотруднике, которое читается без создания объектов.
+ * <p>
+ * Экземпляр переиспользуется для всех строк файла и указывает прямо в буфер
+ * парсера, поэтому действителен только внутри {@link RowConsumer#accept(PersonRow)}.
+ * Методы, возвращающие {@link BigDecimal}, {@link LocalDate} и {@link Person},
+ * создают новые объекты и нужны только тем, кому значение требуется после вызова.
+ * </p>
+ */
+public interface PersonRow {
+
+    /** @return ID сотрудника */
+    long getId();
+
+    /** @return ФИО; последовательность меняется при переходе к следующей строке */
+    CharSequence getName();
+
+    /** @return пол сотрудника */
+    Gender getGender();
+
+    /** @return подразделение из общего кэша сервиса */
+    Department getDepartment();
+
+    /** @return зарплата без десятичной точки: для 4800.50 — 480050 */
+    long getSalaryUnscaled();
+
+    /**
+     * @return число знаков после точки в {@link #getSalaryUnscaled()}; как и {@link BigDecimal#scale()},
+     * отрицательно для зарплаты, записанной с экспонентой (1.2E3 — это 12 и -2)
+     */
+    int getSalaryScale();
+
+    /** @return год рождения */
+    int getBirthYear();
+
+    /** @return месяц рождения, 1–12 */
+    int getBirthMonth();
+
+    /** @return день месяца рождения, 1–31 */
+    int getBirthDay();
+
+    /** @return зарплата в виде нового {@link BigDecimal} */
+    default BigDecimal getSalary() {
+        return BigDecimal.valueOf(getSalaryUnscaled(), getSalaryScale());
+    }
+
+    /** @return дата рождения в виде нового {@link LocalDate} */
+    default LocalDate getBirthDate() {
+        return LocalDate.of(getBirthYear(), getBirthMonth(), getBirthDay());
+    }
+
+    /**
+     * Создаёт независимую копию строки, которую можно хранить после вызова.
+     *
+     * @return новый объект {@link Person}
+     */
+    default Person toPerson() {
+        return new Person(getId(), getName().toString(), getGender(), getDepartment(),
+                getSalary(), getBirthDate());
+    }
+}
@@ -0,0 +1,17 @@
+package service;
+
+/**
+ * Получатель строк в потоковом режиме {@link CSVReaderService#forEach(String, RowConsumer)}.
+ */
+@FunctionalInterface
+public interface RowConsumer {
+
+    /**
+     * Обрабатывает очередную строку.
+     * Объект {@code row} переиспользуется и действителен только во время вызова:
+     * его нельзя сохранять, для этого есть {@link PersonRow#toPerson()}.
+     *
+     * @param row представление текущей строки
+     */
+    void accept(PersonRow row);
+}
@@ -1,5 +1,6 @@
 package service.impl;
 
+import com.opencsv.CSVParser;
 import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
@@ -8,25 +9,41 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import jakarta.validation.ValidatorFactory;
+import models.CsvProfile;
 import models.Department;
 import models.Person;
 import models.enums.Gender;
 import service.CSVReaderService;
+import service.DuplicatePolicy;
+import service.PersonOrder;
+import service.PersonRow;
+import service.RowConsumer;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.Month;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Реализация сервиса для чтения и парсинга CSV-файлов со сведениями о сотрудниках.
  * <p>
  * Поддерживает:
  * <ul>
- *   <li>Чтение из classpath (src/main/resources)</li>
+ *   <li>Чтение из classpath (src/main/resources) или с диска</li>
  *   <li>Разделитель — точка с запятой (;)</li>
  *   <li>Кэширование подразделений</li>
- *   <li>Валидацию объектов через Hibernate Validator</li>
+ *   <li>Валидацию объектов через Hibernate Validator (создаётся лениво) или встроенные проверки</li>
  *   <li>Гибкий парсинг дат и пола</li>
  * </ul>
  * </p>
@@ -34,17 +51,83 @@ import java.util.*;
 public class CSVReaderServiceImpl implements CSVReaderService {
 
     private static final char CSV_SEPARATOR = ';';
-    /** Валидатор для проверки объектов Person */
-    private final Validator validator;
+
+    /** Порядок столбцов в файле: id;name;gender;BirtDate;Division;Salary */
+    private static final int ID_COLUMN = 0;
+    private static final int NAME_COLUMN = 1;
+    private static final int GENDER_COLUMN = 2;
+    private static final int BIRTH_DATE_COLUMN = 3;
+    private static final int DIVISION_COLUMN = 4;
+    private static final int SALARY_COLUMN = 5;
+
+    /** Префикс названия подразделения перед его кодом из файла */
+    private static final String DEPARTMENT_NAME_PREFIX = "Отдел ";
+    /** Код подразделения для строк с пустым столбцом Division */
+    private static final String NO_DEPARTMENT_CODE = "Без_отдела";
+
+    /** Ограничения {@link Person}, проверяемые вручную в потоковом режиме и при профилировании */
+    static final int NAME_MIN_LENGTH = 2;
+    static final int NAME_MAX_LENGTH = 50;
+    static final long SALARY_MAX = 1_000_000L;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    private static final Gender[] GENDERS = Gender.values();
+
+    /** Форматы дат, которые распознаёт сервис, в порядке проверки */
+    static final String[] FLEXIBLE_DATE_PATTERNS = {
+            "dd.MM.yyyy", "dd-MM-yyyy", "dd/MM/yyyy",
+            "yyyy.MM.dd", "yyyy-MM-dd", "yyyy/MM/dd",
+            "dd.MM.yy", "dd-MM-yy", "dd/MM/yy",
+            "MM/dd/yyyy", "MM-dd-yyyy", "MM/dd/yy", "MM-dd-yy"
+    };
+    static final DateTimeFormatter[] FLEXIBLE_DATE_FORMATTERS = Arrays.stream(FLEXIBLE_DATE_PATTERNS)
+            .map(DateTimeFormatter::ofPattern)
+            .toArray(DateTimeFormatter[]::new);
+
+    /**
+     * Начало диапазона ID, выдаваемых строкам с нечисловым ID.
+     * ID из файла в этом диапазоне отклоняются, поэтому сгенерированные ID
+     * никогда не совпадают с настоящими.
+     */
+    static final long GENERATED_ID_BASE = 1L << 62;
+    private static final AtomicLong GENERATED_ID_SEQUENCE = new AtomicLong(GENERATED_ID_BASE);
+
+    /** Начальная ёмкость индекса ID; таблица растёт по мере необходимости */
+    private static final long DEFAULT_EXPECTED_ROWS = 1 << 16;
+
+    /**
+     * true — проверять Person через Hibernate Validator,
+     * false — встроенными проверками тех же ограничений без загрузки Hibernate и EL
+     */
+    private final boolean beanValidation;
 
     /** Кэш подразделений: код подразделения → объект Department */
     private final Map<String, Department> departmentCache = new HashMap<>();
 
-    /** Создаёт сервис и инициализирует валидатор */
+    /**
+     * Создаёт сервис с проверкой через Hibernate Validator.
+     * Валидатор создаётся при первой проверке, а не в конструкторе.
+     */
     public CSVReaderServiceImpl() {
-        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
-            this.validator = factory.getValidator();
-        }
+        this(true);
+    }
+
+    /**
+     * Создаёт сервис с выбранным способом проверки.
+     * <p>
+     * Загрузка Hibernate Validator и jakarta.el занимает заметное время, поэтому
+     * для коротких запусков на небольших файлах удобнее встроенные проверки:
+     * они проверяют те же ограничения {@link Person} с теми же сообщениями.
+     * </p>
+     *
+     * @param beanValidation true — Hibernate Validator, false — встроенные проверки
+     */
+    public CSVReaderServiceImpl(boolean beanValidation) {
+        this.beanValidation = beanValidation;
     }
 
     /**
@@ -57,110 +140,309 @@ public class CSVReaderServiceImpl implements CSVReaderService {
     @Override
     public List<Person> readPeopleFromCSV(String csvFilePath) throws IOException {
         List<Person> people = new ArrayList<>();
+        readFile(csvFilePath, people, null, null);
+        return Collections.unmodifiableList(people);
+    }
 
-        try (InputStream in = getClass().getClassLoader().getResourceAsStream(csvFilePath)) {
-            if (in == null) {
-                throw new FileNotFoundException("Файл не найден в ресурсах: " + csvFilePath +
-                        "\nПоместите файл в src/main/resources/");
+    /**
+     * Читает сотрудников из CSV-файла с проверкой уникальности ID.
+     *
+     * @param csvFilePath     путь к файлу в ресурсах
+     * @param duplicatePolicy политика обработки повторяющихся ID
+     * @return список сотрудников с уникальными ID
+     * @throws IOException если файл не найден, произошла ошибка чтения
+     *                     или найден дубликат при политике {@link DuplicatePolicy#REJECT}
+     */
+    @Override
+    public List<Person> readPeopleFromCSV(String csvFilePath, DuplicatePolicy duplicatePolicy) throws IOException {
+        return readPeopleFromCSV(List.of(csvFilePath), duplicatePolicy);
+    }
+
+    /**
+     * Читает сотрудников из нескольких CSV-файлов, отслеживая повторяющиеся ID
+     * во всех файлах сразу.
+     * <p>
+     * Индекс ID → позиция в результате хранится вне кучи
+     * ({@link OffHeapLongLongMap}), поэтому проверка не создаёт объектов на строку
+     * и выдерживает сотни миллионов записей.
+     * </p>
+     *
+     * @param csvFilePaths    пути к файлам в ресурсах, в порядке загрузки
+     * @param duplicatePolicy политика обработки повторяющихся ID
+     * @return список сотрудников с уникальными ID в порядке первого появления
+     * @throws IOException если файл не найден, произошла ошибка чтения
+     *                     или найден дубликат при политике {@link DuplicatePolicy#REJECT}
+     */
+    @Override
+    public List<Person> readPeopleFromCSV(List<String> csvFilePaths, DuplicatePolicy duplicatePolicy)
+            throws IOException {
+        Objects.requireNonNull(duplicatePolicy, "duplicatePolicy");
+        List<Person> people = new ArrayList<>();
+
+        try (OffHeapLongLongMap idIndex = new OffHeapLongLongMap(DEFAULT_EXPECTED_ROWS)) {
+            for (String csvFilePath : csvFilePaths) {
+                readFile(csvFilePath, people, idIndex, duplicatePolicy);
             }
+        }
+
+        return Collections.unmodifiableList(people);
+    }
+
+    /**
+     * Читает один файл и добавляет сотрудников в {@code people}.
+     * Если {@code idIndex} не задан, уникальность ID не проверяется.
+     */
+    private void readFile(String csvFilePath, List<Person> people,
+                          OffHeapLongLongMap idIndex, DuplicatePolicy duplicatePolicy) throws IOException {
+        // Для диагностики файла используйте profile(): он оценивает весь файл по выборке
+        try (InputStream in = openCsv(csvFilePath);
+             CSVReader reader = new CSVReaderBuilder(new InputStreamReader(in, StandardCharsets.UTF_8))
+                     .withCSVParser(newCsvParser())
+                     .withSkipLines(1) // Пропускаем заголовок
+                     .build()) {
+
+            String[] nextLine;
+            int lineNumber = 0;
+            int processedCount = 0;
+            int duplicateCount = 0;
 
-            // Для диагностики сначала прочитаем первые строки
-            System.out.println("=== ДИАГНОСТИКА ФАЙЛА ===");
+            System.out.println("\n=== НАЧАЛО ОБРАБОТКИ ===");
 
-            // Создаем BufferedReader для диагностики
-            BufferedReader diagnosticReader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+            while ((nextLine = reader.readNext()) != null) {
+                lineNumber++;
 
-            // Читаем первые 3 строки для диагностики
-            System.out.println("Первые 3 строки файла:");
-            for (int i = 0; i < 3; i++) {
-                String line = diagnosticReader.readLine();
-                if (line != null) {
-                    System.out.println((i+1) + ": " + line);
-                    System.out.println("   Разделение по ';': " + Arrays.toString(line.split(";")));
-                    System.out.println("   Длина строки: " + line.length());
+                // Пропускаем пустые строки
+                if (nextLine.length == 0 ||
+                        (nextLine.length == 1 && nextLine[0].trim().isEmpty())) {
+                    continue;
                 }
-            }
 
-            diagnosticReader.close();
+                try {
+                    Person person = parsePerson(nextLine, lineNumber); // Вызываем с 2 параметрами
+                    validatePerson(person);
+                    if (idIndex == null) {
+                        people.add(person);
+                    } else if (!addUnique(person, people, idIndex, duplicatePolicy, csvFilePath, lineNumber)) {
+                        duplicateCount++;
+                    }
+                    processedCount++;
 
-            // Закрываем и переоткрываем поток
-            in.close();
+                } catch (IllegalArgumentException e) {
+                    if (lineNumber <= 10) { // Ограничиваем вывод ошибок
+                        System.err.println("✗ Ошибка в строке " + lineNumber + ": " + e.getMessage());
+                        System.err.println("  Данные: " + Arrays.toString(nextLine));
+                    }
+                }
+            }
 
-            // Снова открываем поток для CSVReader
-            InputStream newIn = getClass().getClassLoader().getResourceAsStream(csvFilePath);
-            if (newIn == null) {
-                throw new FileNotFoundException("Не удалось переоткрыть файл: " + csvFilePath);
+            System.out.println("\n=== РЕЗУЛЬТАТЫ ===");
+            System.out.println("Всего строк прочитано: " + lineNumber);
+            System.out.println("Успешно обработано: " + processedCount);
+            System.out.println("Ошибок: " + (lineNumber - processedCount));
+            if (idIndex != null) {
+                System.out.println("Дубликатов ID (" + duplicatePolicy + "): " + duplicateCount);
             }
 
-            // Используем правильный конструктор CSVReader
-            try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(newIn, "UTF-8"))
-                    .withCSVParser(new CSVParserBuilder()
-                            .withSeparator(CSV_SEPARATOR)
-                            .withQuoteChar('"')
-                            .withEscapeChar('\\')
-                            .build())
-                    .withSkipLines(1) // Пропускаем заголовок
-                    .build()) {
+        } catch (CsvValidationException e) {
+            throw new IOException("Ошибка валидации CSV", e);
+        } catch (Exception e) {
+            throw new IOException("Ошибка при чтении файла: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Добавляет сотрудника с учётом политики дубликатов.
+     *
+     * @return true, если ID встретился впервые
+     * @throws IllegalStateException если ID повторяется при политике {@link DuplicatePolicy#REJECT}
+     */
+    private boolean addUnique(Person person, List<Person> people, OffHeapLongLongMap idIndex,
+                              DuplicatePolicy duplicatePolicy, String csvFilePath, int lineNumber) {
+        long existing = idIndex.putIfAbsent(person.getId(), people.size());
+        if (existing == OffHeapLongLongMap.NO_VALUE) {
+            people.add(person);
+            return true;
+        }
 
-                String[] nextLine;
-                int lineNumber = 0;
-                int processedCount = 0;
+        switch (duplicatePolicy) {
+            case REJECT -> throw new IllegalStateException("Дубликат ID " + person.getId() +
+                    " в файле " + csvFilePath + ", строка " + lineNumber);
+            case LAST_WINS -> people.set((int) existing, person);
+            case FIRST_WINS -> {
+                // Оставляем ранее загруженную запись
+            }
+        }
+        return false;
+    }
 
-                System.out.println("\n=== НАЧАЛО ОБРАБОТКИ ===");
+    /**
+     * Передаёт сотрудников из CSV-файла потребителю по одному, не создавая объектов на строку.
+     * <p>
+     * Записи разбираются собственным токенизатором прямо в буфере чтения, а ограничения
+     * {@link Person} проверяются вручную вместо Hibernate Validator. Потребитель получает
+     * один и тот же {@link PersonRow}, действительный только во время вызова. Строки,
+     * не прошедшие проверку, пропускаются; первые из них выводятся в stderr, как при чтении
+     * списком. Объекты создаются лишь для редких случаев: новое подразделение, пустое имя,
+     * нечисловой ID, зарплата или дата в нестандартном формате.
+     * </p>
+     *
+     * @param csvFilePath путь к файлу в ресурсах (например, "people.csv")
+     * @param consumer    получатель строк; его исключения передаются вызывающему без изменений
+     * @return количество строк, переданных потребителю
+     * @throws IOException если файл не найден или произошла ошибка чтения
+     */
+    @Override
+    public long forEach(String csvFilePath, RowConsumer consumer) throws IOException {
+        Objects.requireNonNull(consumer, "consumer");
 
-                while ((nextLine = reader.readNext()) != null) {
-                    lineNumber++;
+        try (InputStream in = openCsv(csvFilePath)) {
 
-                    // Пропускаем пустые строки
-                    if (nextLine.length == 0 ||
-                            (nextLine.length == 1 && nextLine[0].trim().isEmpty())) {
-                        continue;
-                    }
+            CsvRecordTokenizer tokenizer = new CsvRecordTokenizer(
+                    new InputStreamReader(in, StandardCharsets.UTF_8), CSV_SEPARATOR);
+            MutablePersonRow row = new MutablePersonRow();
+            DepartmentLookup departments = new DepartmentLookup();
+            LocalDate today = LocalDate.now();
 
-                    // Выводим информацию о первых 5 строках
-                    if (lineNumber <= 5) {
-                        System.out.println("Строка " + lineNumber + ":");
-                        System.out.println("  Raw: " + Arrays.toString(nextLine));
-                        System.out.println("  Длина массива: " + nextLine.length);
-                        for (int i = 0; i < nextLine.length; i++) {
-                            System.out.println("  [" + i + "]: '" + nextLine[i] + "'");
-                        }
-                    }
+            tokenizer.next(); // Пропускаем заголовок
 
-                    try {
-                        Person person = parsePerson(nextLine, lineNumber); // Вызываем с 2 параметрами
-                        validatePerson(person);
-                        people.add(person);
-                        processedCount++;
-
-                        // Выводим информацию о первых 3 успешных записях
-                        if (processedCount <= 3) {
-                            System.out.printf("✓ Успешно: %s (ID: %d, Отдел: %s)%n",
-                                    person.getName(), person.getId(), person.getDepartment().getName());
-                        }
-
-                    } catch (IllegalArgumentException e) {
-                        if (lineNumber <= 10) { // Ограничиваем вывод ошибок
-                            System.err.println("✗ Ошибка в строке " + lineNumber + ": " + e.getMessage());
-                            System.err.println("  Данные: " + Arrays.toString(nextLine));
-                        }
-                    }
+            int lineNumber = 0;
+            long acceptedCount = 0;
+            while (tokenizer.next()) {
+                lineNumber++;
+                String error = decodeRow(tokenizer, row, departments, today, lineNumber);
+                if (error == null) {
+                    consumer.accept(row);
+                    acceptedCount++;
+                } else if (lineNumber <= 10) { // Ограничиваем вывод ошибок, как в readFile
+                    System.err.println("✗ Ошибка в строке " + lineNumber + ": " + error);
+                    System.err.println("  Данные: " + Arrays.toString(tokenizer.fields()));
                 }
+            }
 
-                System.out.println("\n=== РЕЗУЛЬТАТЫ ===");
-                System.out.println("Всего строк прочитано: " + lineNumber);
-                System.out.println("Успешно обработано: " + processedCount);
-                System.out.println("Ошибок: " + (lineNumber - processedCount));
+            System.out.println("Потоковая обработка " + csvFilePath + ": прочитано строк " + lineNumber +
+                    ", передано " + acceptedCount + ", ошибок " + (lineNumber - acceptedCount));
+            return acceptedCount;
 
-            } catch (CsvValidationException e) {
-                throw new IOException("Ошибка валидации CSV", e);
-            }
+        } catch (IOException e) {
+            // Исключения потребителя не оборачиваем: ошибка в его коде — не ошибка чтения CSV
+            throw new IOException("Ошибка при чтении файла: " + e.getMessage(), e);
+        }
+    }
 
+    /**
+     * Строит профиль CSV-файла по выборке строк, не загружая файл целиком.
+     * <p>
+     * Файлы на диске размером больше нескольких мегабайт сэмплируются случайными
+     * переходами по смещениям, остальные читаются последовательно, и в профиль попадает
+     * каждая прочитанная строка. Работа прекращается при достижении любого из лимитов,
+     * поэтому профиль строится за предсказуемое время на файле любого размера.
+     * Случайные переходы считают записью одну строку файла: если в полях в кавычках
+     * встречаются переводы строк, доля ошибок при таком профилировании завышена.
+     * </p>
+     *
+     * @param csvFilePath   путь к файлу в ресурсах или на диске
+     * @param maxSampleRows максимальное количество строк в профиле
+     * @param timeBudget    лимит времени на построение профиля
+     * @return оценки количества строк, доли ошибок по столбцам, форматов дат и числа подразделений
+     * @throws IOException если файл не найден или произошла ошибка чтения
+     */
+    @Override
+    public CsvProfile profile(String csvFilePath, int maxSampleRows, Duration timeBudget) throws IOException {
+        try {
+            CsvProfiler profiler = new CsvProfiler(maxSampleRows, timeBudget);
+            Path file = resolveFile(csvFilePath);
+            if (file != null) {
+                return profiler.profile(file);
+            }
+            try (InputStream in = openCsv(csvFilePath)) {
+                return profiler.profile(in, -1);
+            }
         } catch (Exception e) {
-            throw new IOException("Ошибка при чтении файла: " + e.getMessage(), e);
+            throw new IOException("Ошибка при профилировании файла: " + e.getMessage(), e);
         }
+    }
 
-        return Collections.unmodifiableList(people);
+    /**
+     * Передаёт сотрудников потребителю в заданном порядке, используя не больше
+     * указанного объёма кучи под сортируемые записи.
+     * <p>
+     * Строки читаются потоково через {@link #forEach(String, RowConsumer)}, отсортированные
+     * прогоны сбрасываются во временные файлы и затем сливаются k-путевым слиянием,
+     * поэтому файл может быть много больше доступной памяти. Сортировка устойчива.
+     * </p>
+     *
+     * @param csvFilePath       путь к файлу в ресурсах или на диске
+     * @param order             порядок сортировки, например {@code PersonOrder.SALARY.descending()}
+     * @param memoryBudgetBytes бюджет памяти под буфер записей и буферы временных файлов, не меньше 1 МиБ
+     * @param consumer          получатель отсортированных записей
+     * @return количество переданных записей
+     * @throws IOException если файл не найден или произошла ошибка чтения либо записи временных файлов
+     */
+    @Override
+    public long sortPeople(String csvFilePath, Comparator<Person> order, long memoryBudgetBytes,
+                           Consumer<Person> consumer) throws IOException {
+        try (ExternalPersonSorter sorter = new ExternalPersonSorter(order, memoryBudgetBytes)) {
+            try {
+                forEach(csvFilePath, row -> {
+                    try {
+                        sorter.add(row.toPerson());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException spillFailure) {
+                throw sortFailure(spillFailure.getCause());
+            }
+            try {
+                return sorter.finish(departmentsById(), consumer);
+            } catch (IOException e) {
+                throw sortFailure(e);
+            }
+        }
+    }
+
+    private static IOException sortFailure(IOException cause) {
+        return new IOException("Ошибка сортировки во временных файлах: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Находит первые {@code k} сотрудников в заданном порядке за один проход по файлу.
+     * В памяти хранится не больше {@code k} записей.
+     *
+     * @param csvFilePath путь к файлу в ресурсах или на диске
+     * @param order       порядок, например {@code PersonOrder.SALARY.descending()} для самых высоких зарплат
+     * @param k           количество записей
+     * @return до {@code k} сотрудников, отсортированных в порядке {@code order}
+     * @throws IOException если файл не найден или произошла ошибка чтения
+     */
+    @Override
+    public List<Person> topK(String csvFilePath, Comparator<Person> order, int k) throws IOException {
+        TopK top = new TopK(order, k);
+        forEach(csvFilePath, top::offer);
+        return top.toSortedList();
+    }
+
+    /**
+     * Находит первые {@code k} сотрудников в заданном порядке в каждом подразделении
+     * за один проход по файлу. Для каждого подразделения хранится не больше {@code k} записей.
+     *
+     * @param csvFilePath путь к файлу в ресурсах или на диске
+     * @param order       порядок, например {@code PersonOrder.SALARY.descending()} для самых высоких зарплат
+     * @param k           количество записей в каждом подразделении
+     * @return подразделение → до {@code k} сотрудников в порядке {@code order}; подразделения по названию
+     * @throws IOException если файл не найден или произошла ошибка чтения
+     */
+    @Override
+    public Map<Department, List<Person>> topKPerDepartment(String csvFilePath, Comparator<Person> order, int k)
+            throws IOException {
+        Map<Department, TopK> tops = new HashMap<>();
+        forEach(csvFilePath, row -> tops.computeIfAbsent(row.getDepartment(), d -> new TopK(order, k)).offer(row));
+
+        Map<Department, List<Person>> result = new LinkedHashMap<>();
+        tops.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Department::getName)))
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue().toSortedList()));
+        return result;
     }
 
     /**
@@ -192,20 +474,19 @@ public class CSVReaderServiceImpl implements CSVReaderService {
             // ID
             Long id;
             try {
-                id = Long.parseLong(csvLine[0].trim());
-            } catch (NumberFormatException e) {
-                // Если ID не число, используем номер строки или генерируем
-                if (lineNumber > 0) {
-                    id = (long) lineNumber;
-                } else {
-                    id = System.currentTimeMillis() % 1000000; // Простой генератор
+                id = Long.parseLong(csvLine[ID_COLUMN].trim());
+                if (id >= GENERATED_ID_BASE) {
+                    throw new IllegalArgumentException("ID " + id + " попадает в зарезервированный диапазон");
                 }
+            } catch (NumberFormatException e) {
+                // Если ID не число, выдаём ID из зарезервированного диапазона
+                id = GENERATED_ID_SEQUENCE.getAndIncrement();
                 System.out.printf("  Строка %d: Используется сгенерированный ID: %d%n",
                         lineNumber > 0 ? lineNumber : 0, id);
             }
 
             // Имя
-            String name = csvLine[1].trim();
+            String name = csvLine[NAME_COLUMN].trim();
             if (name.isEmpty()) {
                 name = "Неизвестно_" + id;
                 if (lineNumber > 0) {
@@ -216,28 +497,25 @@ public class CSVReaderServiceImpl implements CSVReaderService {
             // Пол
             Gender gender;
             try {
-                gender = Gender.fromString(csvLine[2].trim());
+                gender = Gender.fromString(csvLine[GENDER_COLUMN].trim());
             } catch (IllegalArgumentException e) {
                 gender = Gender.MALE; // Значение по умолчанию
                 if (lineNumber > 0) {
                     System.out.printf("  Строка %d: Неизвестный пол '%s', используется MALE%n",
-                            lineNumber, csvLine[2].trim());
+                            lineNumber, csvLine[GENDER_COLUMN].trim());
                 }
             }
 
             // Подразделение
-            String departmentName = csvLine[3].trim();
-            if (departmentName.isEmpty()) {
-                departmentName = "Без_отдела";
+            String departmentCode = csvLine[DIVISION_COLUMN].trim();
+            if (departmentCode.isEmpty()) {
+                departmentCode = NO_DEPARTMENT_CODE;
             }
-            Department department = departmentCache.computeIfAbsent(
-                    departmentName,
-                    Department::new
-            );
+            Department department = departmentFor(departmentCode);
 
             // Зарплата
             BigDecimal salary;
-            String salaryStr = csvLine[4].trim().replace(",", ".");
+            String salaryStr = csvLine[SALARY_COLUMN].trim().replace(",", ".");
             if (salaryStr.isEmpty()) {
                 salary = BigDecimal.ZERO;
             } else {
@@ -254,7 +532,7 @@ public class CSVReaderServiceImpl implements CSVReaderService {
 
             // Дата рождения
             LocalDate birthDate;
-            String dateStr = csvLine[5].trim();
+            String dateStr = csvLine[BIRTH_DATE_COLUMN].trim();
             try {
                 birthDate = Person.parseDate(dateStr);
             } catch (IllegalArgumentException e) {
@@ -279,6 +557,342 @@ public class CSVReaderServiceImpl implements CSVReaderService {
         }
     }
 
+    /**
+     * Находит файл на диске для произвольного доступа: ресурс из каталога classpath
+     * или путь в файловой системе.
+     *
+     * @return путь к файлу или null, если файл доступен только как поток (например, внутри jar)
+     */
+    private Path resolveFile(String csvFilePath) {
+        URL resource = getClass().getClassLoader().getResource(csvFilePath);
+        if (resource != null) {
+            try {
+                return "file".equals(resource.getProtocol()) ? Path.of(resource.toURI()) : null;
+            } catch (URISyntaxException e) {
+                return null;
+            }
+        }
+        Path path = Path.of(csvFilePath);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /** Парсер OpenCSV с настройками формата people.csv */
+    static CSVParser newCsvParser() {
+        return new CSVParserBuilder()
+                .withSeparator(CSV_SEPARATOR)
+                .withQuoteChar('"')
+                .withEscapeChar('\\')
+                .build();
+    }
+
+    /**
+     * Открывает CSV-файл: сначала ищет его в classpath, затем на диске.
+     * Большие файлы удобнее читать прямо с диска, не копируя их в ресурсы.
+     *
+     * @param csvFilePath путь в ресурсах или в файловой системе
+     * @return поток с содержимым файла
+     * @throws FileNotFoundException если файл не найден ни там, ни там
+     */
+    private InputStream openCsv(String csvFilePath) throws IOException {
+        InputStream in = getClass().getClassLoader().getResourceAsStream(csvFilePath);
+        if (in != null) {
+            return in;
+        }
+        Path path = Path.of(csvFilePath);
+        if (Files.isRegularFile(path)) {
+            return Files.newInputStream(path);
+        }
+        throw new FileNotFoundException("Файл не найден в ресурсах: " + csvFilePath +
+                "\nПоместите файл в src/main/resources/ или укажите путь к файлу на диске");
+    }
+
+    private Map<Long, Department> departmentsById() {
+        Map<Long, Department> result = new HashMap<>();
+        for (Department department : departmentCache.values()) {
+            result.put(department.getId(), department);
+        }
+        return result;
+    }
+
+    private Department departmentFor(String code) {
+        return departmentCache.computeIfAbsent(code, c -> new Department(DEPARTMENT_NAME_PREFIX + c));
+    }
+
+    /**
+     * Заполняет {@code row} из текущей записи токенизатора и проверяет те же ограничения,
+     * что и аннотации {@link Person}.
+     *
+     * @return null, если строка принята, иначе причина, по которой её нужно пропустить
+     */
+    private String decodeRow(CsvRecordTokenizer tokenizer, MutablePersonRow row,
+                             DepartmentLookup departments, LocalDate today, int lineNumber) {
+        if (tokenizer.fieldCount() < 6) {
+            return "Недостаточно данных в строке. Ожидается 6 полей, получено: " + tokenizer.fieldCount();
+        }
+        char[] buffer = tokenizer.buffer();
+
+        // ID
+        int start = trimStart(buffer, tokenizer.fieldStart(ID_COLUMN), tokenizer.fieldEnd(ID_COLUMN));
+        int end = trimEnd(buffer, start, tokenizer.fieldEnd(ID_COLUMN));
+        long id = parseLong(buffer, start, end);
+        if (id == Long.MIN_VALUE) {
+            id = GENERATED_ID_SEQUENCE.getAndIncrement();
+        } else if (id <= 0) {
+            return "id: ID должен быть положительным числом";
+        } else if (id >= GENERATED_ID_BASE) {
+            return "ID " + id + " попадает в зарезервированный диапазон";
+        }
+        row.setId(id);
+
+        // Имя
+        start = trimStart(buffer, tokenizer.fieldStart(NAME_COLUMN), tokenizer.fieldEnd(NAME_COLUMN));
+        end = trimEnd(buffer, start, tokenizer.fieldEnd(NAME_COLUMN));
+        if (start == end) {
+            char[] name = ("Неизвестно_" + id).toCharArray();
+            row.setName(name, 0, name.length);
+        } else {
+            row.setName(buffer, start, end);
+        }
+        int nameLength = row.getName().length();
+        if (nameLength < NAME_MIN_LENGTH || nameLength > NAME_MAX_LENGTH) {
+            return "name: Имя должно содержать от 2 до 50 символов";
+        }
+
+        // Пол
+        start = trimStart(buffer, tokenizer.fieldStart(GENDER_COLUMN), tokenizer.fieldEnd(GENDER_COLUMN));
+        end = trimEnd(buffer, start, tokenizer.fieldEnd(GENDER_COLUMN));
+        row.setGender(parseGender(buffer, start, end));
+
+        // Подразделение
+        start = trimStart(buffer, tokenizer.fieldStart(DIVISION_COLUMN), tokenizer.fieldEnd(DIVISION_COLUMN));
+        end = trimEnd(buffer, start, tokenizer.fieldEnd(DIVISION_COLUMN));
+        row.setDepartment(departments.find(buffer, start, end));
+
+        // Зарплата
+        start = trimStart(buffer, tokenizer.fieldStart(SALARY_COLUMN), tokenizer.fieldEnd(SALARY_COLUMN));
+        end = trimEnd(buffer, start, tokenizer.fieldEnd(SALARY_COLUMN));
+        String salaryError = parseSalary(buffer, start, end, row);
+        if (salaryError != null) {
+            return salaryError;
+        }
+
+        // Дата рождения
+        start = trimStart(buffer, tokenizer.fieldStart(BIRTH_DATE_COLUMN), tokenizer.fieldEnd(BIRTH_DATE_COLUMN));
+        end = trimEnd(buffer, start, tokenizer.fieldEnd(BIRTH_DATE_COLUMN));
+        if (!parseDateFast(buffer, start, end, row)) {
+            if (start == end) {
+                return "Дата не может быть пустой";
+            }
+            String dateStr = new String(buffer, start, end - start);
+            LocalDate birthDate;
+            try {
+                birthDate = Person.parseDate(dateStr);
+            } catch (IllegalArgumentException e) {
+                try {
+                    birthDate = parseDateFlexible(dateStr, lineNumber);
+                } catch (IllegalArgumentException invalid) {
+                    return invalid.getMessage();
+                }
+            }
+            row.setBirthDate(birthDate.getYear(), birthDate.getMonthValue(), birthDate.getDayOfMonth());
+        }
+        return isBefore(row, today) ? null : "birthDate: Дата рождения должна быть в прошлом";
+    }
+
+    private static int trimStart(char[] buffer, int start, int end) {
+        while (start < end && buffer[start] <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(char[] buffer, int start, int end) {
+        while (end > start && buffer[end - 1] <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Разбирает целое число так же, как {@link Long#parseLong(String)}.
+     *
+     * @return число или {@link Long#MIN_VALUE}, если это не число
+     */
+    private static long parseLong(char[] buffer, int start, int end) {
+        if (start == end) {
+            return Long.MIN_VALUE;
+        }
+        boolean negative = buffer[start] == '-';
+        if (negative || buffer[start] == '+') {
+            start++;
+            if (start == end) {
+                return Long.MIN_VALUE;
+            }
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static Gender parseGender(char[] buffer, int start, int end) {
+        for (Gender gender : GENDERS) {
+            if (equalsIgnoreCase(buffer, start, end, gender.name()) ||
+                    equalsIgnoreCase(buffer, start, end, gender.getRussianName())) {
+                return gender;
+            }
+        }
+        return Gender.MALE; // Значение по умолчанию, как в parsePerson
+    }
+
+    private static boolean equalsIgnoreCase(char[] buffer, int start, int end, String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char a = buffer[start + i];
+            char b = text.charAt(i);
+            if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b) &&
+                    Character.toLowerCase(a) != Character.toLowerCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Разбирает зарплату и проверяет, что она больше 0 и не превышает {@value #SALARY_MAX}.
+     * Цифры с точкой или запятой разбираются без создания объектов, остальное
+     * (знак, экспонента, больше 18 цифр) — через {@link BigDecimal}, как при чтении списком.
+     *
+     * @return null или описание ошибки
+     */
+    private static String parseSalary(char[] buffer, int start, int end, MutablePersonRow row) {
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = buffer[i];
+            if ((c == '.' || c == ',') && scale < 0) {
+                scale = 0;
+            } else if (c >= '0' && c <= '9' && digits < POWERS_OF_TEN.length - 1) {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                return parseSalaryDecimal(buffer, start, end, row);
+            }
+        }
+        if (digits == 0) {
+            return parseSalaryDecimal(buffer, start, end, row);
+        }
+        scale = Math.max(scale, 0);
+
+        long integerPart = unscaled / POWERS_OF_TEN[scale];
+        long fraction = unscaled % POWERS_OF_TEN[scale];
+        if (unscaled == 0) {
+            return "salary: Зарплата должна быть больше 0";
+        }
+        if (integerPart > SALARY_MAX || (integerPart == SALARY_MAX && fraction > 0)) {
+            return "salary: Зарплата не может превышать 1,000,000";
+        }
+        row.setSalary(unscaled, scale);
+        return null;
+    }
+
+    /**
+     * Медленный путь {@link #parseSalary}: тот же разбор, что в {@code parsePerson}.
+     * Незначащие нули в конце отбрасываются, только если иначе число не помещается в long.
+     */
+    private static String parseSalaryDecimal(char[] buffer, int start, int end, MutablePersonRow row) {
+        if (start == end) {
+            return "salary: Зарплата должна быть больше 0"; // parsePerson подставляет 0
+        }
+        String salaryStr = new String(buffer, start, end - start).replace(',', '.');
+        BigDecimal salary;
+        try {
+            salary = new BigDecimal(salaryStr);
+        } catch (NumberFormatException e) {
+            return "Некорректная зарплата '" + salaryStr + "'";
+        }
+        if (salary.signum() <= 0) {
+            return "salary: Зарплата должна быть больше 0";
+        }
+        if (salary.compareTo(BigDecimal.valueOf(SALARY_MAX)) > 0) {
+            return "salary: Зарплата не может превышать 1,000,000";
+        }
+        if (salary.unscaledValue().bitLength() >= Long.SIZE) {
+            salary = salary.stripTrailingZeros();
+            if (salary.unscaledValue().bitLength() >= Long.SIZE) {
+                return "salary: Зарплата содержит больше 18 значащих цифр: " + salaryStr;
+            }
+        }
+        row.setSalary(salary.unscaledValue().longValue(), salary.scale());
+        return null;
+    }
+
+    /**
+     * Разбирает даты форматов {@link Person#parseDate(String)} (dd.MM.yyyy, yyyy-MM-dd, dd/MM/yyyy)
+     * без создания объектов.
+     *
+     * @return false, если формат не распознан — тогда используется обычный разбор
+     */
+    private static boolean parseDateFast(char[] buffer, int start, int end, MutablePersonRow row) {
+        if (end - start != 10) {
+            return false;
+        }
+        int year;
+        int month;
+        int day;
+        char first = buffer[start + 2];
+        if ((first == '.' || first == '/') && buffer[start + 5] == first) {
+            day = digits(buffer, start, 2);
+            month = digits(buffer, start + 3, 2);
+            year = digits(buffer, start + 6, 4);
+        } else if (buffer[start + 4] == '-' && buffer[start + 7] == '-') {
+            year = digits(buffer, start, 4);
+            month = digits(buffer, start + 5, 2);
+            day = digits(buffer, start + 8, 2);
+        } else {
+            return false;
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 ||
+                day > Month.of(month).length(IsoChronology.INSTANCE.isLeapYear(year))) {
+            return false;
+        }
+        row.setBirthDate(year, month, day);
+        return true;
+    }
+
+    private static int digits(char[] buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isBefore(MutablePersonRow row, LocalDate today) {
+        if (row.getBirthYear() != today.getYear()) {
+            return row.getBirthYear() < today.getYear();
+        }
+        if (row.getBirthMonth() != today.getMonthValue()) {
+            return row.getBirthMonth() < today.getMonthValue();
+        }
+        return row.getBirthDay() < today.getDayOfMonth();
+    }
+
     private LocalDate parseDateFlexible(String dateString, int lineNumber) {
         if (dateString == null || dateString.trim().isEmpty()) {
             throw new IllegalArgumentException("Дата не может быть пустой");
@@ -287,16 +901,9 @@ public class CSVReaderServiceImpl implements CSVReaderService {
         dateString = dateString.trim();
 
         // Пробуем разные форматы дат
-        String[] patterns = {
-                "dd.MM.yyyy", "dd-MM-yyyy", "dd/MM/yyyy",
-                "yyyy.MM.dd", "yyyy-MM-dd", "yyyy/MM/dd",
-                "dd.MM.yy", "dd-MM-yy", "dd/MM/yy",
-                "MM/dd/yyyy", "MM-dd-yyyy", "MM/dd/yy", "MM-dd-yy"
-        };
-
-        for (String pattern : patterns) {
+        for (DateTimeFormatter formatter : FLEXIBLE_DATE_FORMATTERS) {
             try {
-                return LocalDate.parse(dateString, java.time.format.DateTimeFormatter.ofPattern(pattern));
+                return LocalDate.parse(dateString, formatter);
             } catch (Exception e) {
                 // Пробуем следующий формат
             }
@@ -308,7 +915,7 @@ public class CSVReaderServiceImpl implements CSVReaderService {
     }
 
     private void validatePerson(Person person) {
-        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        List<String> violations = beanValidation ? validateWithBeanValidation(person) : validateBuiltin(person);
 
         if (!violations.isEmpty()) {
             StringBuilder sb = new StringBuilder();
@@ -316,15 +923,274 @@ public class CSVReaderServiceImpl implements CSVReaderService {
                     .append(person.getId())
                     .append(":\n");
 
-            for (ConstraintViolation<Person> violation : violations) {
-                sb.append("  - ")
-                        .append(violation.getPropertyPath())
-                        .append(": ")
-                        .append(violation.getMessage())
-                        .append("\n");
-            }
+            violations.forEach(violation -> sb.append("  - ")
+                    .append(violation)
+                    .append("\n"));
 
             throw new IllegalArgumentException(sb.toString());
         }
     }
-}
\ No newline at end of file
+
+    /** @return все нарушения ограничений в виде "свойство: сообщение" */
+    private List<String> validateWithBeanValidation(Person person) {
+        Set<ConstraintViolation<Person>> violations = ValidatorHolder.VALIDATOR.validate(person);
+        if (violations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Одно свойство может нарушать несколько ограничений — сохраняем каждое
+        List<String> result = new ArrayList<>(violations.size());
+        for (ConstraintViolation<Person> violation : violations) {
+            result.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет ограничения аннотаций {@link Person} без Hibernate Validator.
+     *
+     * @return нарушения ограничений в виде "свойство: сообщение"
+     */
+    private static List<String> validateBuiltin(Person person) {
+        List<String> result = new ArrayList<>();
+
+        if (person.getId() == null) {
+            result.add("id: ID не может быть null");
+        } else if (person.getId() <= 0) {
+            result.add("id: ID должен быть положительным числом");
+        }
+
+        String name = person.getName();
+        if (name == null || name.trim().isEmpty()) {
+            result.add("name: Имя не может быть пустым");
+        }
+        // Как и @Size, проверяется независимо от @NotBlank: имя " " нарушает оба
+        if (name != null && (name.length() < NAME_MIN_LENGTH || name.length() > NAME_MAX_LENGTH)) {
+            result.add("name: Имя должно содержать от 2 до 50 символов");
+        }
+
+        if (person.getGender() == null) {
+            result.add("gender: Пол не может быть null");
+        }
+        if (person.getDepartment() == null) {
+            result.add("department: Подразделение не может быть null");
+        }
+
+        BigDecimal salary = person.getSalary();
+        if (salary == null) {
+            result.add("salary: Зарплата не может быть null");
+        } else if (salary.signum() <= 0) {
+            result.add("salary: Зарплата должна быть больше 0");
+        } else if (salary.compareTo(BigDecimal.valueOf(SALARY_MAX)) > 0) {
+            result.add("salary: Зарплата не может превышать 1,000,000");
+        }
+
+        if (person.getBirthDate() == null) {
+            result.add("birthDate: Дата рождения не может быть null");
+        } else if (!person.getBirthDate().isBefore(LocalDate.now())) {
+            result.add("birthDate: Дата рождения должна быть в прошлом");
+        }
+
+        return result;
+    }
+
+    /**
+     * Ленивая инициализация Hibernate Validator: фабрика создаётся при первом обращении
+     * к {@link #VALIDATOR} и одна на все экземпляры сервиса.
+     */
+    private static final class ValidatorHolder {
+        static final Validator VALIDATOR;
+
+        static {
+            try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+                VALIDATOR = factory.getValidator();
+            }
+        }
+    }
+
+    /**
+     * Поиск подразделения по коду прямо в буфере парсера, без создания строки.
+     * Новые коды регистрируются в общем {@link #departmentCache}.
+     */
+    private final class DepartmentLookup {
+        private char[][] codes = new char[32][];
+        private Department[] departments = new Department[32];
+        private int size;
+
+        Department find(char[] buffer, int start, int end) {
+            int mask = codes.length - 1;
+            int slot = hash(buffer, start, end) & mask;
+            while (codes[slot] != null) {
+                if (Arrays.equals(codes[slot], 0, codes[slot].length, buffer, start, end)) {
+                    return departments[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            String code = start == end ? NO_DEPARTMENT_CODE : new String(buffer, start, end - start);
+            Department department = departmentFor(code);
+            codes[slot] = Arrays.copyOfRange(buffer, start, end);
+            departments[slot] = department;
+            if (++size * 2 > codes.length) {
+                rehash();
+            }
+            return department;
+        }
+
+        private void rehash() {
+            char[][] oldCodes = codes;
+            Department[] oldDepartments = departments;
+            codes = new char[oldCodes.length * 2][];
+            departments = new Department[oldCodes.length * 2];
+            int mask = codes.length - 1;
+            for (int i = 0; i < oldCodes.length; i++) {
+                if (oldCodes[i] != null) {
+                    int slot = hash(oldCodes[i], 0, oldCodes[i].length) & mask;
+                    while (codes[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    codes[slot] = oldCodes[i];
+                    departments[slot] = oldDepartments[i];
+                }
+            }
+        }
+
+        private int hash(char[] buffer, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + buffer[i];
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Ограниченная куча для потокового top-K: корень — худшая из сохранённых записей.
+     * Новая запись вытесняет корень, только если она лучше него, поэтому в памяти
+     * никогда не бывает больше {@code k} записей. Для порядков {@link PersonOrder} строка
+     * сравнивается с корнем по примитивным полям, и {@link Person} создаётся, только
+     * когда строка попадает в кучу.
+     */
+    private static final class TopK {
+        private final Comparator<Person> order;
+        /** Тот же порядок для строк или null, если порядок задан не через {@link PersonOrder} */
+        private final Comparator<PersonRow> rowOrder;
+        private final int k;
+        private final PriorityQueue<Candidate> heap;
+
+        TopK(Comparator<Person> order, int k) {
+            if (k <= 0) {
+                throw new IllegalArgumentException("k должно быть положительным: " + k);
+            }
+            this.order = order;
+            this.rowOrder = PersonOrder.rowOrderOf(order);
+            this.k = k;
+            this.heap = new PriorityQueue<>(Math.min(k, 1 << 16) + 1,
+                    Comparator.comparing(Candidate::toPerson, order).reversed());
+        }
+
+        void offer(PersonRow row) {
+            if (heap.size() < k) {
+                heap.add(new Candidate(row.toPerson(), row));
+                return;
+            }
+            Person person;
+            if (rowOrder != null) {
+                if (rowOrder.compare(row, heap.peek()) >= 0) {
+                    return;
+                }
+                person = row.toPerson();
+            } else {
+                // Произвольному порядку нужен Person для каждой строки
+                person = row.toPerson();
+                if (order.compare(person, heap.peek().toPerson()) >= 0) {
+                    return;
+                }
+            }
+            heap.poll();
+            heap.add(new Candidate(person, row));
+        }
+
+        List<Person> toSortedList() {
+            List<Person> result = new ArrayList<>(heap.size());
+            for (Candidate candidate : heap) {
+                result.add(candidate.toPerson());
+            }
+            result.sort(order);
+            return result;
+        }
+    }
+
+    /**
+     * Запись в куче top-K: {@link Person} вместе с примитивными полями, по которым
+     * с ней сравниваются строки файла.
+     */
+    private static final class Candidate implements PersonRow {
+        private final Person person;
+        private final long id;
+        private final long salaryUnscaled;
+        private final int salaryScale;
+        private final int birthYear;
+        private final int birthMonth;
+        private final int birthDay;
+
+        Candidate(Person person, PersonRow row) {
+            this.person = person;
+            this.id = row.getId();
+            this.salaryUnscaled = row.getSalaryUnscaled();
+            this.salaryScale = row.getSalaryScale();
+            this.birthYear = row.getBirthYear();
+            this.birthMonth = row.getBirthMonth();
+            this.birthDay = row.getBirthDay();
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public CharSequence getName() {
+            return person.getName();
+        }
+
+        @Override
+        public Gender getGender() {
+            return person.getGender();
+        }
+
+        @Override
+        public Department getDepartment() {
+            return person.getDepartment();
+        }
+
+        @Override
+        public long getSalaryUnscaled() {
+            return salaryUnscaled;
+        }
+
+        @Override
+        public int getSalaryScale() {
+            return salaryScale;
+        }
+
+        @Override
+        public int getBirthYear() {
+            return birthYear;
+        }
+
+        @Override
+        public int getBirthMonth() {
+            return birthMonth;
+        }
+
+        @Override
+        public int getBirthDay() {
+            return birthDay;
+        }
+
+        @Override
+        public Person toPerson() {
+            return person;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package service.impl;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import models.CsvProfile;
+import models.enums.Gender;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Строит {@link CsvProfile} по выборке строк, укладываясь в заданные лимиты времени и строк.
+ * <p>
+ * Небольшие файлы и потоки без произвольного доступа читаются последовательно:
+ * в профиль попадает каждая прочитанная строка, поэтому дочитанный до конца файл
+ * даёт точные значения. Если раньше кончились время или лимит строк, профиль
+ * строится по прочитанной части, а число строк экстраполируется по прочитанным байтам.
+ * Большие файлы на диске сэмплируются случайными переходами по смещениям,
+ * поэтому время работы не зависит от размера файла. Переходы ищут начало записи
+ * по переводу строки, так что поля в кавычках с переводом строки внутри разрывают
+ * запись: её части попадают в выборку как отдельные строки и завышают долю ошибок.
+ * </p>
+ */
+final class CsvProfiler {
+
+    /** Ключ для строк с недостаточным количеством полей */
+    static final String STRUCTURE_COLUMN = "структура";
+    /** Ключ для дат, не подходящих ни под один формат */
+    static final String UNKNOWN_DATE_FORMAT = "не распознан";
+
+    private static final String[] COLUMNS = {"id", "name", "gender", "BirtDate", "Division", "Salary"};
+    private static final BigDecimal SALARY_MAX = BigDecimal.valueOf(CSVReaderServiceImpl.SALARY_MAX);
+
+    /** Файлы до этого размера читаются целиком — это быстрее и даёт точный профиль */
+    private static final long FULL_SCAN_BYTES = 8L << 20;
+    /** Строки длиннее пропускаются при случайных переходах */
+    private static final int MAX_LINE_BYTES = 1 << 16;
+    /** Порция чтения при переходе: обычно в неё помещаются и хвост предыдущей строки, и выбранная */
+    private static final int READ_CHUNK_BYTES = 1 << 13;
+    /** Попыток перехода на одну строку выборки: часть переходов отклоняется */
+    private static final int SEEKS_PER_SAMPLE = 64;
+    /** Фиксированный seed делает профиль воспроизводимым */
+    private static final long SEED = 42L;
+
+    private final CSVParser parser = CSVReaderServiceImpl.newCsvParser();
+    private final SplittableRandom random = new SplittableRandom(SEED);
+    private final int maxSampleRows;
+    private final long startNanos;
+    private final long deadlineNanos;
+
+    CsvProfiler(int maxSampleRows, Duration timeBudget) {
+        if (maxSampleRows <= 0) {
+            throw new IllegalArgumentException("Размер выборки должен быть положительным: " + maxSampleRows);
+        }
+        this.maxSampleRows = maxSampleRows;
+        this.startNanos = System.nanoTime();
+        this.deadlineNanos = startNanos + timeBudget.toNanos();
+    }
+
+    /**
+     * Профилирует файл на диске.
+     */
+    CsvProfile profile(Path file) throws IOException {
+        long size = Files.size(file);
+        if (size <= FULL_SCAN_BYTES) {
+            try (InputStream in = Files.newInputStream(file)) {
+                return profile(in, size);
+            }
+        }
+        return profileBySeeking(file);
+    }
+
+    /**
+     * Профилирует поток последовательным чтением, пока не кончатся поток, время или лимит строк.
+     *
+     * @param totalBytes размер потока в байтах или -1, если он неизвестен
+     */
+    CsvProfile profile(InputStream in, long totalBytes) throws IOException {
+        CountingInputStream counting = new CountingInputStream(in);
+        ColumnStats stats = new ColumnStats();
+        boolean endOfStream = false;
+
+        try (CSVReader reader = new CSVReaderBuilder(new InputStreamReader(counting, StandardCharsets.UTF_8))
+                .withCSVParser(parser)
+                .withSkipLines(1) // Пропускаем заголовок
+                .build()) {
+            while (System.nanoTime() < deadlineNanos) {
+                String[] row = reader.readNext();
+                if (row == null) {
+                    endOfStream = true;
+                    break;
+                }
+                // Лишняя строка прочитана, только чтобы узнать, есть ли данные дальше
+                if (stats.rows == maxSampleRows) {
+                    break;
+                }
+                if (!isBlank(row)) {
+                    stats.add(row);
+                }
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("Ошибка валидации CSV", e);
+        }
+
+        long estimatedRows = stats.rows;
+        if (!endOfStream && totalBytes > 0 && counting.count > 0) {
+            estimatedRows = Math.round((double) stats.rows * totalBytes / counting.count);
+        }
+        return summarize(CsvProfile.Method.SEQUENTIAL, endOfStream, stats, estimatedRows);
+    }
+
+    /**
+     * Выбирает строки случайными переходами: берётся случайное смещение,
+     * и в выборку попадает первая строка, начинающаяся после него.
+     * <p>
+     * Смещение попадает в предыдущую строку с вероятностью, пропорциональной её длине,
+     * поэтому строки после длинных выпадали бы чаще. Чтобы выборка была равномерной,
+     * переход принимается, только если до конца предыдущей строки осталось не больше
+     * {@code shortest} байт, где {@code shortest} — длина самой короткой из увиденных строк:
+     * для строки длины L это происходит с вероятностью shortest / L. Строки короче
+     * {@code shortest} до того, как она установится, принимаются всегда — это единственный
+     * остаточный перекос.
+     * </p>
+     */
+    private CsvProfile profileBySeeking(Path file) throws IOException {
+        ColumnStats stats = new ColumnStats();
+        long sampledBytes = 0;
+        long sampledLines = 0;
+        long dataStart;
+        long size;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            FileWindow window = new FileWindow(channel, size);
+            window.moveTo(0);
+            dataStart = window.lineEnd(0);
+            if (dataStart < 0 || dataStart >= size) {
+                return summarize(CsvProfile.Method.RANDOM_SEEK, true, stats, 0);
+            }
+
+            long firstLineEnd = window.lineEnd(dataStart);
+            long shortest = firstLineEnd > dataStart ? firstLineEnd - dataStart : MAX_LINE_BYTES;
+
+            long attempts = (long) SEEKS_PER_SAMPLE * maxSampleRows;
+            while (stats.rows < maxSampleRows && attempts-- > 0 && System.nanoTime() < deadlineNanos) {
+                // Смещение dataStart - 1 — это перевод строки заголовка, так что первая строка тоже достижима
+                long offset = dataStart - 1 + random.nextLong(size - dataStart);
+                window.moveTo(offset);
+                long lineStart = window.lineEnd(offset);
+                if (lineStart < 0) {
+                    continue; // Слишком длинная строка
+                }
+                // Расстояние до конца предыдущей строки равномерно от 1 до её длины
+                if (lineStart - offset > shortest) {
+                    continue;
+                }
+                if (lineStart >= size) {
+                    lineStart = dataStart; // Смещение попало в последнюю строку
+                    window.moveTo(dataStart);
+                }
+
+                // Выбранная строка обычно уже прочитана вместе с хвостом предыдущей
+                long lineEnd = window.lineEnd(lineStart);
+                if (lineEnd < 0) {
+                    continue;
+                }
+                int length = (int) (lineEnd - lineStart);
+                sampledBytes += length;
+                sampledLines++;
+                shortest = Math.min(shortest, length);
+
+                byte[] bytes = window.bytes();
+                int from = window.indexOf(lineStart);
+                String line = new String(bytes, from, trimLineEnd(bytes, from, length), StandardCharsets.UTF_8);
+                String[] row = parser.parseLine(line);
+                if (!isBlank(row)) {
+                    stats.add(row);
+                }
+            }
+        }
+
+        long estimatedRows = sampledLines == 0 ? 0 : Math.round((double) (size - dataStart) * sampledLines / sampledBytes);
+        return summarize(CsvProfile.Method.RANDOM_SEEK, false, stats, estimatedRows);
+    }
+
+    private static int trimLineEnd(byte[] bytes, int from, int length) {
+        while (length > 0 && (bytes[from + length - 1] == '\n' || bytes[from + length - 1] == '\r')) {
+            length--;
+        }
+        return length;
+    }
+
+    private CsvProfile summarize(CsvProfile.Method method, boolean exact, ColumnStats stats, long estimatedRows) {
+        Map<String, Double> errorRates = new LinkedHashMap<>();
+        for (int i = 0; i < stats.errors.length; i++) {
+            String column = i < COLUMNS.length ? COLUMNS[i] : STRUCTURE_COLUMN;
+            errorRates.put(column, stats.rows == 0 ? 0.0 : (double) stats.errors[i] / stats.rows);
+        }
+
+        return CsvProfile.builder()
+                .method(method)
+                .exact(exact)
+                .sampledRows(stats.rows)
+                .estimatedRowCount(estimatedRows)
+                .columnErrorRates(Collections.unmodifiableMap(errorRates))
+                .dateFormats(Collections.unmodifiableMap(stats.dateFormats))
+                .sampledDepartments(stats.departments.size())
+                .estimatedDepartments(exact ? stats.departments.size() : estimateDistinct(stats.departments, estimatedRows))
+                .elapsed(Duration.ofNanos(System.nanoTime() - startNanos))
+                .build();
+    }
+
+    private static boolean isValidId(String id) {
+        try {
+            long value = Long.parseLong(id);
+            return value > 0 && value < CSVReaderServiceImpl.GENERATED_ID_BASE;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** Определяет формат даты, учитывает его в распределении и проверяет, что дата в прошлом */
+    private static boolean checkDate(String date, LocalDate today, Map<String, Long> dateFormats) {
+        for (int i = 0; i < CSVReaderServiceImpl.FLEXIBLE_DATE_FORMATTERS.length; i++) {
+            try {
+                LocalDate parsed = LocalDate.parse(date, CSVReaderServiceImpl.FLEXIBLE_DATE_FORMATTERS[i]);
+                dateFormats.merge(CSVReaderServiceImpl.FLEXIBLE_DATE_PATTERNS[i], 1L, Long::sum);
+                return parsed.isBefore(today);
+            } catch (DateTimeParseException ignored) {
+                // Пробуем следующий формат
+            }
+        }
+        dateFormats.merge(UNKNOWN_DATE_FORMAT, 1L, Long::sum);
+        return false;
+    }
+
+    private static boolean isValidSalary(String salary) {
+        try {
+            BigDecimal value = new BigDecimal(salary.replace(",", "."));
+            return value.signum() > 0 && value.compareTo(SALARY_MAX) <= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Оценка Chao1 числа различных значений по частотам в выборке:
+     * чем больше значений встретилось ровно один раз, тем больше неувиденных.
+     */
+    private static long estimateDistinct(Map<String, Long> counts, long maxDistinct) {
+        long singletons = counts.values().stream().filter(c -> c == 1).count();
+        long doubletons = counts.values().stream().filter(c -> c == 2).count();
+        double estimate = counts.size() + singletons * (singletons - 1) / (2.0 * (doubletons + 1));
+        return Math.max(counts.size(), Math.min(Math.round(estimate), maxDistinct));
+    }
+
+    private static boolean isBlank(String[] row) {
+        return row.length == 0 || (row.length == 1 && row[0].trim().isEmpty());
+    }
+
+    /**
+     * Окно файла для случайных переходов: читается порциями по {@link #READ_CHUNK_BYTES}
+     * и растёт, только пока в прочитанном нет перевода строки.
+     */
+    private static final class FileWindow {
+        private final FileChannel channel;
+        private long size;
+        private byte[] bytes = new byte[READ_CHUNK_BYTES];
+        /** Смещение в файле первого байта окна */
+        private long start;
+        private int length;
+
+        FileWindow(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        /** Начинает окно с позиции {@code position}, ничего не читая */
+        void moveTo(long position) {
+            start = position;
+            length = 0;
+        }
+
+        /**
+         * Ищет ближайший {@code '\n'} начиная с {@code from}, дочитывая файл при необходимости.
+         * Позиция {@code from} должна лежать в окне или сразу за ним.
+         *
+         * @return смещение первого байта после перевода строки, размер файла, если перевода
+         * строки нет до конца файла, или -1, если строка длиннее {@link #MAX_LINE_BYTES}
+         */
+        long lineEnd(long from) throws IOException {
+            int i = indexOf(from);
+            while (true) {
+                for (; i < length; i++) {
+                    if (bytes[i] == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                if (start + length >= size) {
+                    return size;
+                }
+                if (start + length - from >= MAX_LINE_BYTES) {
+                    return -1;
+                }
+                readChunk();
+            }
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        /** @return индекс в {@link #bytes()} байта с позицией {@code position} в файле */
+        int indexOf(long position) {
+            return (int) (position - start);
+        }
+
+        private void readChunk() throws IOException {
+            if (bytes.length - length < READ_CHUNK_BYTES) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            int read = channel.read(ByteBuffer.wrap(bytes, length, READ_CHUNK_BYTES), start + length);
+            if (read < 0) {
+                size = start + length; // Файл укоротился во время профилирования
+            } else {
+                length += read;
+            }
+        }
+    }
+
+    /** Счётчики ошибок, форматов дат и подразделений по строкам, попавшим в профиль */
+    private static final class ColumnStats {
+        private final long[] errors = new long[COLUMNS.length + 1];
+        private final Map<String, Long> dateFormats = new LinkedHashMap<>();
+        private final Map<String, Long> departments = new HashMap<>();
+        private final LocalDate today = LocalDate.now();
+        private long rows;
+
+        void add(String[] row) {
+            rows++;
+            if (row.length < COLUMNS.length) {
+                errors[COLUMNS.length]++;
+                return;
+            }
+            if (!isValidId(row[0].trim())) {
+                errors[0]++;
+            }
+            int nameLength = row[1].trim().length();
+            if (nameLength < CSVReaderServiceImpl.NAME_MIN_LENGTH || nameLength > CSVReaderServiceImpl.NAME_MAX_LENGTH) {
+                errors[1]++;
+            }
+            try {
+                Gender.fromString(row[2]);
+            } catch (IllegalArgumentException e) {
+                errors[2]++;
+            }
+            if (!checkDate(row[3].trim(), today, dateFormats)) {
+                errors[3]++;
+            }
+            String division = row[4].trim();
+            if (division.isEmpty()) {
+                errors[4]++;
+            } else {
+                departments.merge(division, 1L, Long::sum);
+            }
+            if (!isValidSalary(row[5].trim())) {
+                errors[5]++;
+            }
+        }
+    }
+
+    /** Считает прочитанные байты, чтобы экстраполировать число строк по размеру файла */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
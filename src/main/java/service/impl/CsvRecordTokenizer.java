@@ -0,0 +1,200 @@
+package service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Разбивает CSV-поток на записи и поля без создания объектов на строку.
+ * <p>
+ * Записи читаются в общий буфер {@code char[]}; после {@link #next()} границы полей
+ * доступны через {@link #fieldStart(int)} и {@link #fieldEnd(int)}. Кавычки
+ * и экранирование ({@code ""}, {@code \"}, {@code \\}) раскрываются прямо в буфере,
+ * поэтому содержимое поля действительно только до следующего вызова {@link #next()}.
+ * Разделитель и перевод строки внутри кавычек считаются частью поля.
+ * </p>
+ */
+final class CsvRecordTokenizer {
+
+    private static final char QUOTE = '"';
+    private static final char ESCAPE = '\\';
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_FIELD_COUNT = 8;
+
+    private final Reader reader;
+    private final char separator;
+
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+    /** Начало текущей (ещё не разобранной) записи */
+    private int position;
+    /** Конец прочитанных данных в буфере */
+    private int limit;
+    private boolean endOfStream;
+
+    private int[] fieldStarts = new int[INITIAL_FIELD_COUNT];
+    private int[] fieldEnds = new int[INITIAL_FIELD_COUNT];
+    private int fieldCount;
+
+    CsvRecordTokenizer(Reader reader, char separator) {
+        this.reader = reader;
+        this.separator = separator;
+    }
+
+    /**
+     * Переходит к следующей записи.
+     *
+     * @return false, если поток закончился
+     * @throws IOException при ошибке чтения
+     */
+    boolean next() throws IOException {
+        int scan = position;
+        boolean inQuotes = false;
+        int recordEnd;
+
+        while (true) {
+            if (scan >= limit) {
+                if (endOfStream) {
+                    if (position >= limit) {
+                        return false;
+                    }
+                    recordEnd = limit;
+                    break;
+                }
+                scan -= fill();
+                continue;
+            }
+
+            char c = buffer[scan];
+            if (c == ESCAPE) {
+                if (scan + 1 >= limit && !endOfStream) {
+                    // Экранированный символ ещё не прочитан
+                    scan -= fill();
+                    continue;
+                }
+                // Как и в split(): экранируются только кавычка и обратная косая черта,
+                // остальные символы после '\\' (в том числе перевод строки) читаются как обычно
+                char next = scan + 1 < limit ? buffer[scan + 1] : 0;
+                scan += next == QUOTE || next == ESCAPE ? 2 : 1;
+            } else if (c == QUOTE) {
+                inQuotes = !inQuotes;
+                scan++;
+            } else if (c == '\n' && !inQuotes) {
+                recordEnd = scan;
+                break;
+            } else {
+                scan++;
+            }
+        }
+
+        int start = position;
+        position = Math.min(recordEnd + 1, limit);
+        if (recordEnd > start && buffer[recordEnd - 1] == '\r') {
+            recordEnd--;
+        }
+        split(start, Math.min(recordEnd, limit));
+        return true;
+    }
+
+    /** @return количество полей в текущей записи */
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    /** @return буфер, в котором лежат поля текущей записи */
+    char[] buffer() {
+        return buffer;
+    }
+
+    /** @return индекс первого символа поля в {@link #buffer()} */
+    int fieldStart(int field) {
+        return fieldStarts[field];
+    }
+
+    /** @return индекс после последнего символа поля в {@link #buffer()} */
+    int fieldEnd(int field) {
+        return fieldEnds[field];
+    }
+
+    /**
+     * Копирует поля текущей записи в строки; нужен только для диагностики отклонённых записей.
+     */
+    String[] fields() {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = new String(buffer, fieldStarts[i], fieldEnds[i] - fieldStarts[i]);
+        }
+        return fields;
+    }
+
+    /**
+     * Разбивает запись на поля, раскрывая кавычки на месте.
+     * Раскрытое поле никогда не длиннее исходного, поэтому запись идёт поверх чтения.
+     */
+    private void split(int start, int end) {
+        fieldCount = 0;
+        int write = start;
+        int fieldStart = start;
+        boolean inQuotes = false;
+
+        int i = start;
+        while (i < end) {
+            char c = buffer[i];
+            char next = i + 1 < end ? buffer[i + 1] : 0;
+            if (c == ESCAPE && (next == QUOTE || next == ESCAPE)) {
+                buffer[write++] = next;
+                i += 2;
+            } else if (c == QUOTE) {
+                if (inQuotes && next == QUOTE) {
+                    buffer[write++] = QUOTE;
+                    i += 2;
+                } else {
+                    inQuotes = !inQuotes;
+                    i++;
+                }
+            } else if (c == separator && !inQuotes) {
+                addField(fieldStart, write);
+                fieldStart = write;
+                i++;
+            } else {
+                buffer[write++] = c;
+                i++;
+            }
+        }
+        addField(fieldStart, write);
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Сдвигает текущую запись в начало буфера и дочитывает поток.
+     * Буфер растёт, только если одна запись не помещается в него целиком.
+     *
+     * @return на сколько символов сдвинуты данные
+     */
+    private int fill() throws IOException {
+        int shift = position;
+        if (shift > 0) {
+            System.arraycopy(buffer, shift, buffer, 0, limit - shift);
+            limit -= shift;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+        } else {
+            limit += read;
+        }
+        return shift;
+    }
+}
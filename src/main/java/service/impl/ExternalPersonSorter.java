@@ -0,0 +1,295 @@
+package service.impl;
+
+import models.Department;
+import models.Person;
+import models.enums.Gender;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Внешняя сортировка сотрудников слиянием с фиксированным бюджетом памяти.
+ * <p>
+ * Записи копятся в памяти, пока их оценочный размер не достигнет бюджета; затем
+ * буфер сортируется и сбрасывается на диск отдельным отсортированным прогоном.
+ * В конце прогоны сливаются k-путевым слиянием через очередь с приоритетом.
+ * Если прогонов больше {@code maxFanIn}, слияние выполняется в несколько проходов.
+ * Сортировка устойчива: равные записи выходят в порядке поступления.
+ * Если всё поместилось в бюджет, диск не используется.
+ * </p>
+ * <p>
+ * Бюджет включает буферы временных файлов. При слиянии открыто до {@code maxFanIn}
+ * прогонов и один выходной файл, поэтому каждому буферу достаётся
+ * {@code бюджет / (maxFanIn + 1)}, но не больше 64 КиБ; при малом бюджете
+ * число сливаемых за проход прогонов уменьшается так, чтобы буфер был не меньше 4 КиБ.
+ * Записи копятся, пока не займут бюджет за вычетом буфера, через который они сбрасываются.
+ * </p>
+ */
+final class ExternalPersonSorter implements AutoCloseable {
+
+    /** Минимальный бюджет: меньший приводит к прогонам из единиц записей */
+    static final long MIN_MEMORY_BUDGET_BYTES = 1L << 20;
+    /** Оценка размера Person в куче без учёта символов имени: сам объект, Long, String, BigDecimal, LocalDate */
+    private static final int PERSON_OVERHEAD_BYTES = 200;
+    private static final int DEFAULT_MAX_FAN_IN = 64;
+    private static final int MAX_IO_BUFFER_SIZE = 1 << 16;
+    private static final int MIN_IO_BUFFER_SIZE = 1 << 12;
+    private static final Gender[] GENDERS = Gender.values();
+
+    private final Comparator<Person> order;
+    private final int maxFanIn;
+    private final int ioBufferSize;
+    /** Часть бюджета под записи в памяти: остальное занимает буфер записи прогона */
+    private final long recordBudgetBytes;
+    private final List<Person> buffer = new ArrayList<>();
+    private final List<Run> runs = new ArrayList<>();
+    private final List<Path> tempFiles = new ArrayList<>();
+    private long bufferedBytes;
+
+    ExternalPersonSorter(Comparator<Person> order, long memoryBudgetBytes) {
+        this(order, memoryBudgetBytes, DEFAULT_MAX_FAN_IN);
+    }
+
+    ExternalPersonSorter(Comparator<Person> order, long memoryBudgetBytes, int maxFanIn) {
+        if (memoryBudgetBytes < MIN_MEMORY_BUDGET_BYTES) {
+            throw new IllegalArgumentException("Бюджет памяти должен быть не меньше " +
+                    MIN_MEMORY_BUDGET_BYTES + " байт: " + memoryBudgetBytes);
+        }
+        if (maxFanIn < 2) {
+            throw new IllegalArgumentException("Слияние требует хотя бы двух прогонов: " + maxFanIn);
+        }
+        this.order = Objects.requireNonNull(order, "order");
+        this.maxFanIn = (int) Math.min(maxFanIn, memoryBudgetBytes / MIN_IO_BUFFER_SIZE - 1);
+        this.ioBufferSize = (int) Math.min(MAX_IO_BUFFER_SIZE, memoryBudgetBytes / (this.maxFanIn + 1));
+        this.recordBudgetBytes = memoryBudgetBytes - ioBufferSize;
+    }
+
+    /**
+     * Добавляет запись; при исчерпании бюджета сбрасывает буфер на диск.
+     */
+    void add(Person person) throws IOException {
+        buffer.add(person);
+        bufferedBytes += PERSON_OVERHEAD_BYTES + 2L * person.getName().length();
+        if (bufferedBytes >= recordBudgetBytes) {
+            spill();
+        }
+    }
+
+    /**
+     * Передаёт все записи потребителю в отсортированном порядке.
+     *
+     * @param departmentsById подразделения для восстановления записей с диска
+     * @param consumer        получатель записей
+     * @return количество переданных записей
+     */
+    long finish(Map<Long, Department> departmentsById, Consumer<Person> consumer) throws IOException {
+        if (runs.isEmpty()) {
+            buffer.sort(order);
+            buffer.forEach(consumer);
+            long count = buffer.size();
+            buffer.clear();
+            return count;
+        }
+
+        spill();
+        List<Run> pending = new ArrayList<>(runs);
+        while (pending.size() > maxFanIn) {
+            List<Run> merged = new ArrayList<>();
+            for (int from = 0; from < pending.size(); from += maxFanIn) {
+                List<Run> group = pending.subList(from, Math.min(from + maxFanIn, pending.size()));
+                if (group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                try (RunWriter writer = new RunWriter(newTempFile(), ioBufferSize)) {
+                    merge(group, departmentsById, writer);
+                    merged.add(writer.toRun());
+                }
+                // Слитые прогоны больше не нужны — освобождаем диск сразу
+                for (Run run : group) {
+                    Files.deleteIfExists(run.file());
+                }
+            }
+            pending = merged;
+        }
+        return merge(pending, departmentsById, consumer::accept);
+    }
+
+    /** Удаляет все временные файлы */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Path file : tempFiles) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        tempFiles.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** @return размер буфера одного временного файла */
+    int ioBufferSize() {
+        return ioBufferSize;
+    }
+
+    /** @return количество прогонов, сброшенных на диск (без промежуточных слияний) */
+    int spilledRuns() {
+        return runs.size();
+    }
+
+    private void spill() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        buffer.sort(order);
+        try (RunWriter writer = new RunWriter(newTempFile(), ioBufferSize)) {
+            for (Person person : buffer) {
+                writer.write(person);
+            }
+            runs.add(writer.toRun());
+        }
+        buffer.clear();
+        bufferedBytes = 0;
+    }
+
+    private long merge(List<Run> group, Map<Long, Department> departmentsById, PersonSink sink) throws IOException {
+        List<RunReader> readers = new ArrayList<>(group.size());
+        try {
+            // При равных записях побеждает более ранний прогон — так сохраняется устойчивость
+            PriorityQueue<RunReader> heads = new PriorityQueue<>(group.size(),
+                    Comparator.comparing(RunReader::head, order).thenComparingInt(RunReader::index));
+            for (Run run : group) {
+                RunReader reader = new RunReader(run, readers.size(), departmentsById, ioBufferSize);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+
+            long count = 0;
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                sink.accept(reader.head());
+                count++;
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+            return count;
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private Path newTempFile() throws IOException {
+        Path file = Files.createTempFile("people-run-", ".bin");
+        tempFiles.add(file);
+        return file;
+    }
+
+    @FunctionalInterface
+    private interface PersonSink {
+        void accept(Person person) throws IOException;
+    }
+
+    /** Отсортированный прогон на диске */
+    private record Run(Path file, long size) {
+    }
+
+    /** Пишет записи в компактном двоичном формате */
+    private static final class RunWriter implements Closeable, PersonSink {
+        private final Path file;
+        private final DataOutputStream out;
+        private long size;
+
+        RunWriter(Path file, int bufferSize) throws IOException {
+            this.file = file;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), bufferSize));
+        }
+
+        void write(Person person) throws IOException {
+            out.writeLong(person.getId());
+            out.writeUTF(person.getName());
+            out.writeByte(person.getGender().ordinal());
+            out.writeLong(person.getDepartment().getId());
+            out.writeUTF(person.getSalary().toString());
+            out.writeLong(person.getBirthDate().toEpochDay());
+            size++;
+        }
+
+        @Override
+        public void accept(Person person) throws IOException {
+            write(person);
+        }
+
+        Run toRun() {
+            return new Run(file, size);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** Читает прогон по одной записи */
+    private static final class RunReader implements Closeable {
+        private final DataInputStream in;
+        private final int index;
+        private final Map<Long, Department> departmentsById;
+        private long remaining;
+        private Person head;
+
+        RunReader(Run run, int index, Map<Long, Department> departmentsById, int bufferSize) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file()), bufferSize));
+            this.index = index;
+            this.departmentsById = departmentsById;
+            this.remaining = run.size();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            remaining--;
+            long id = in.readLong();
+            String name = in.readUTF();
+            Gender gender = GENDERS[in.readByte()];
+            long departmentId = in.readLong();
+            Department department = departmentsById.get(departmentId);
+            if (department == null) {
+                throw new IOException("Неизвестное подразделение с ID " + departmentId);
+            }
+            BigDecimal salary = new BigDecimal(in.readUTF());
+            LocalDate birthDate = LocalDate.ofEpochDay(in.readLong());
+            head = new Person(id, name, gender, department, salary, birthDate);
+            return true;
+        }
+
+        Person head() {
+            return head;
+        }
+
+        int index() {
+            return index;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
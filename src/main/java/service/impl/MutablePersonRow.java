@@ -0,0 +1,137 @@
+package service.impl;
+
+import models.Department;
+import models.enums.Gender;
+import service.PersonRow;
+
+/**
+ * Изменяемая реализация {@link PersonRow}, которую сервис заполняет заново для каждой строки.
+ */
+final class MutablePersonRow implements PersonRow {
+
+    private final CharSlice name = new CharSlice();
+
+    private long id;
+    private Gender gender;
+    private Department department;
+    private long salaryUnscaled;
+    private int salaryScale;
+    private int birthYear;
+    private int birthMonth;
+    private int birthDay;
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public CharSequence getName() {
+        return name;
+    }
+
+    @Override
+    public Gender getGender() {
+        return gender;
+    }
+
+    @Override
+    public Department getDepartment() {
+        return department;
+    }
+
+    @Override
+    public long getSalaryUnscaled() {
+        return salaryUnscaled;
+    }
+
+    @Override
+    public int getSalaryScale() {
+        return salaryScale;
+    }
+
+    @Override
+    public int getBirthYear() {
+        return birthYear;
+    }
+
+    @Override
+    public int getBirthMonth() {
+        return birthMonth;
+    }
+
+    @Override
+    public int getBirthDay() {
+        return birthDay;
+    }
+
+    void setId(long id) {
+        this.id = id;
+    }
+
+    void setName(char[] buffer, int start, int end) {
+        name.set(buffer, start, end);
+    }
+
+    void setGender(Gender gender) {
+        this.gender = gender;
+    }
+
+    void setDepartment(Department department) {
+        this.department = department;
+    }
+
+    void setSalary(long unscaled, int scale) {
+        this.salaryUnscaled = unscaled;
+        this.salaryScale = scale;
+    }
+
+    void setBirthDate(int year, int month, int day) {
+        this.birthYear = year;
+        this.birthMonth = month;
+        this.birthDay = day;
+    }
+
+    @Override
+    public String toString() {
+        return "PersonRow(id=" + id + ", name=" + name + ", gender=" + gender +
+                ", department=" + department + ", salary=" + getSalary() +
+                ", birthDate=" + getBirthDate() + ")";
+    }
+
+    /** Окно в буфер парсера без копирования символов */
+    private static final class CharSlice implements CharSequence {
+        private char[] buffer;
+        private int start;
+        private int end;
+
+        void set(char[] buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return buffer[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer, start, end - start);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package service.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Хэш-таблица long → long с открытой адресацией, хранящая данные вне кучи.
+ * <p>
+ * Слоты (ключ + значение, 16 байт) лежат в direct-буферах, поэтому таблица
+ * не создаёт объектов на каждую запись и не нагружает GC даже при сотнях
+ * миллионов ключей. Коллизии разрешаются линейным пробированием.
+ * Ключ {@code 0} служит маркером пустого слота, поэтому допускаются только
+ * положительные ключи — как у {@link models.Person#getId()}.
+ * </p>
+ * <p>
+ * Таблица разбита на {@value #SEGMENT_COUNT} независимых сегментов: сегмент выбирается
+ * старшими битами хэша и перестраивается сам по себе. Поэтому при росте одновременно
+ * живут старый и новый буфер только одного сегмента, а не две копии всей таблицы,
+ * и каждый освободившийся буфер невелик. Direct-память старых буферов и всей таблицы
+ * после {@link #close()} возвращается при сборке мусора; если её не хватает,
+ * JVM запускает сборку сама перед выделением нового буфера.
+ * </p>
+ * <p>
+ * Для больших объёмов нужно поднять лимит direct-памяти JVM
+ * ({@code -XX:MaxDirectMemorySize}): 100 млн ключей занимают около 4 ГиБ.
+ * Класс не потокобезопасен.
+ * </p>
+ */
+final class OffHeapLongLongMap implements AutoCloseable {
+
+    /** Возвращается, если ключ отсутствует в таблице */
+    static final long NO_VALUE = -1L;
+
+    private static final int SLOT_BYTES = 16;
+    private static final int SLOT_SHIFT = 4;
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+    private static final int MIN_SEGMENT_SLOTS = 1 << 8;
+    /** 2^26 слотов = 1 ГиБ на сегмент, смещения в буфере остаются в пределах int */
+    private static final int MAX_SEGMENT_SLOTS = 1 << 26;
+    private static final double LOAD_FACTOR = 0.6;
+
+    private Segment[] segments;
+    private long size;
+
+    /**
+     * Создаёт таблицу, рассчитанную на указанное число ключей без перестроения.
+     *
+     * @param expectedSize ожидаемое количество ключей
+     */
+    OffHeapLongLongMap(long expectedSize) {
+        long required = (long) Math.ceil(expectedSize / LOAD_FACTOR / SEGMENT_COUNT);
+        int segmentSlots = (int) Math.min(MAX_SEGMENT_SLOTS,
+                Math.max(MIN_SEGMENT_SLOTS, Long.highestOneBit(Math.max(required - 1, 1)) << 1));
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentSlots);
+        }
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     *
+     * @param key положительный ключ
+     * @return значение или {@link #NO_VALUE}, если ключа нет
+     */
+    long get(long key) {
+        checkKey(key);
+        long hash = mix(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Добавляет пару, только если ключа ещё нет.
+     *
+     * @param key   положительный ключ
+     * @param value неотрицательное значение
+     * @return уже существующее значение или {@link #NO_VALUE}, если пара была добавлена
+     */
+    long putIfAbsent(long key, long value) {
+        return insert(key, value, false);
+    }
+
+    /**
+     * Добавляет пару или заменяет значение существующего ключа.
+     *
+     * @param key   положительный ключ
+     * @param value неотрицательное значение
+     * @return предыдущее значение или {@link #NO_VALUE}, если ключа не было
+     */
+    long put(long key, long value) {
+        return insert(key, value, true);
+    }
+
+    /** @return количество ключей в таблице */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Освобождает ссылки на direct-буферы; память возвращается системе при их сборке.
+     */
+    @Override
+    public void close() {
+        segments = null;
+        size = 0;
+    }
+
+    private long insert(long key, long value, boolean replace) {
+        checkKey(key);
+        if (value < 0) {
+            throw new IllegalArgumentException("Значение должно быть неотрицательным: " + value);
+        }
+        long hash = mix(key);
+        long previous = segmentFor(hash).insert(key, hash, value, replace);
+        if (previous == NO_VALUE) {
+            size++;
+        }
+        return previous;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private void checkKey(long key) {
+        if (segments == null) {
+            throw new IllegalStateException("Таблица уже закрыта");
+        }
+        if (key <= 0) {
+            throw new IllegalArgumentException("Ключ должен быть положительным: " + key);
+        }
+    }
+
+    /** Финализатор MurmurHash3: равномерно распределяет последовательные ID по слотам */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /** Самостоятельная таблица с открытой адресацией в одном direct-буфере; слот — младшие биты хэша */
+    private static final class Segment {
+        private ByteBuffer slots;
+        private int mask;
+        private int size;
+        private int resizeThreshold;
+
+        Segment(int capacity) {
+            allocate(capacity);
+        }
+
+        long get(long key, long hash) {
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                int offset = slot << SLOT_SHIFT;
+                long current = slots.getLong(offset);
+                if (current == key) {
+                    return slots.getLong(offset + Long.BYTES);
+                }
+                if (current == 0) {
+                    return NO_VALUE;
+                }
+            }
+        }
+
+        long insert(long key, long hash, long value, boolean replace) {
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                int offset = slot << SLOT_SHIFT;
+                long current = slots.getLong(offset);
+                if (current == key) {
+                    long previous = slots.getLong(offset + Long.BYTES);
+                    if (replace) {
+                        slots.putLong(offset + Long.BYTES, value);
+                    }
+                    return previous;
+                }
+                if (current == 0) {
+                    // Хотя бы один слот должен оставаться пустым, иначе поиск не завершится
+                    if (size >= mask) {
+                        throw new IllegalStateException("Сегмент таблицы переполнен: " + size + " ключей");
+                    }
+                    slots.putLong(offset, key);
+                    slots.putLong(offset + Long.BYTES, value);
+                    if (++size > resizeThreshold) {
+                        resize();
+                    }
+                    return NO_VALUE;
+                }
+            }
+        }
+
+        private void resize() {
+            int oldCapacity = mask + 1;
+            if (oldCapacity == MAX_SEGMENT_SLOTS) {
+                return; // Дальше сегмент заполняется сверх LOAD_FACTOR
+            }
+            ByteBuffer oldSlots = slots;
+            allocate(oldCapacity << 1);
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                int offset = slot << SLOT_SHIFT;
+                long key = oldSlots.getLong(offset);
+                if (key != 0) {
+                    int target = (int) mix(key) & mask;
+                    while (slots.getLong(target << SLOT_SHIFT) != 0) {
+                        target = (target + 1) & mask;
+                    }
+                    slots.putLong(target << SLOT_SHIFT, key);
+                    slots.putLong((target << SLOT_SHIFT) + Long.BYTES, oldSlots.getLong(offset + Long.BYTES));
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            mask = capacity - 1;
+            resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированный генератор CSV-файлов в формате {@code people.csv}.
+ * <p>
+ * Один и тот же seed и одни и те же настройки всегда дают побайтово одинаковый файл.
+ * Доли «грязных» данных задаются отдельно:
+ * <ul>
+ *   <li>некорректные даты — такие строки сервис отбрасывает;</li>
+ *   <li>зарплаты с запятой ({@code 4800,50});</li>
+ *   <li>неизвестный пол — сервис подставляет MALE;</li>
+ *   <li>имена в кавычках со встроенным разделителем и кавычками.</li>
+ * </ul>
+ * Все ID уникальны и идут подряд начиная с 1, поэтому число корректных строк
+ * равно {@code rows - badDateRows}.
+ * </p>
+ * <p>
+ * Запуск из командной строки: {@code PeopleCsvGenerator <файл> <строк> [seed]}.
+ * </p>
+ */
+public class PeopleCsvGenerator {
+
+    private static final String HEADER = "id;name;gender;BirtDate;Division;Salary";
+    private static final String[] NAME_PARTS = {
+            "Aa", "Ali", "Bo", "Da", "El", "Fa", "Gre", "Ha", "Ina", "Jo", "Ka", "Le", "Mi",
+            "Na", "Ol", "Pe", "Ra", "Sa", "Ta", "Ul", "Va", "Wi", "Ya", "Zy"
+    };
+    private static final String[] DIVISIONS = {
+            "A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M", "N", "O"
+    };
+    private static final String[] UNKNOWN_GENDERS = {"Unknown", "X", "n/a", ""};
+    private static final String[] BAD_DATES = {"32.01.1990", "1990/13/45", "not a date", ""};
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private long seed = 42L;
+    private double badDateRatio = 0.01;
+    private double commaSalaryRatio = 0.05;
+    private double unknownGenderRatio = 0.01;
+    private double quotedFieldRatio = 0.02;
+
+    public PeopleCsvGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public PeopleCsvGenerator withBadDateRatio(double ratio) {
+        this.badDateRatio = checkRatio(ratio);
+        return this;
+    }
+
+    public PeopleCsvGenerator withCommaSalaryRatio(double ratio) {
+        this.commaSalaryRatio = checkRatio(ratio);
+        return this;
+    }
+
+    public PeopleCsvGenerator withUnknownGenderRatio(double ratio) {
+        this.unknownGenderRatio = checkRatio(ratio);
+        return this;
+    }
+
+    public PeopleCsvGenerator withQuotedFieldRatio(double ratio) {
+        this.quotedFieldRatio = checkRatio(ratio);
+        return this;
+    }
+
+    /**
+     * Записывает файл с заголовком и {@code rows} строками данных.
+     *
+     * @param target путь к создаваемому файлу
+     * @param rows   количество строк данных
+     * @return количество строк с некорректной датой, которые сервис должен отбросить
+     * @throws IOException при ошибке записи
+     */
+    public long generate(Path target, long rows) throws IOException {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Количество строк не может быть отрицательным: " + rows);
+        }
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(target), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            return generate(writer, rows);
+        }
+    }
+
+    /**
+     * Записывает заголовок и {@code rows} строк данных в {@code writer}.
+     *
+     * @return количество строк с некорректной датой
+     */
+    public long generate(Writer writer, long rows) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder line = new StringBuilder(64);
+        long badDateRows = 0;
+
+        writer.write(HEADER);
+        writer.write('\n');
+
+        for (long id = 1; id <= rows; id++) {
+            line.setLength(0);
+            line.append(id).append(';');
+            appendName(line, random);
+            line.append(';');
+            appendGender(line, random);
+            line.append(';');
+            if (random.nextDouble() < badDateRatio) {
+                line.append(BAD_DATES[random.nextInt(BAD_DATES.length)]);
+                badDateRows++;
+            } else {
+                appendDate(line, random);
+            }
+            line.append(';').append(DIVISIONS[random.nextInt(DIVISIONS.length)]).append(';');
+            appendSalary(line, random);
+            line.append('\n');
+            writer.append(line);
+        }
+
+        return badDateRows;
+    }
+
+    private void appendName(StringBuilder line, SplittableRandom random) {
+        if (random.nextDouble() < quotedFieldRatio) {
+            // Фамилия и имя через разделитель, а внутри — экранированные кавычки
+            line.append('"');
+            appendWord(line, random);
+            line.append("; ");
+            appendWord(line, random);
+            line.append(" \"\"");
+            appendWord(line, random);
+            line.append("\"\"\"");
+        } else {
+            appendWord(line, random);
+        }
+    }
+
+    private void appendWord(StringBuilder line, SplittableRandom random) {
+        int start = line.length();
+        int parts = 2 + random.nextInt(2);
+        for (int i = 0; i < parts; i++) {
+            line.append(NAME_PARTS[random.nextInt(NAME_PARTS.length)]);
+        }
+        line.setCharAt(start, Character.toUpperCase(line.charAt(start)));
+    }
+
+    private void appendGender(StringBuilder line, SplittableRandom random) {
+        if (random.nextDouble() < unknownGenderRatio) {
+            line.append(UNKNOWN_GENDERS[random.nextInt(UNKNOWN_GENDERS.length)]);
+        } else {
+            line.append(random.nextBoolean() ? "Male" : "Female");
+        }
+    }
+
+    private void appendDate(StringBuilder line, SplittableRandom random) {
+        int day = 1 + random.nextInt(28);
+        int month = 1 + random.nextInt(12);
+        int year = 1940 + random.nextInt(66);
+        if (day < 10) {
+            line.append('0');
+        }
+        line.append(day).append('.');
+        if (month < 10) {
+            line.append('0');
+        }
+        line.append(month).append('.').append(year);
+    }
+
+    private void appendSalary(StringBuilder line, SplittableRandom random) {
+        line.append((10 + random.nextInt(91)) * 100);
+        if (random.nextDouble() < commaSalaryRatio) {
+            int cents = random.nextInt(100);
+            line.append(',');
+            if (cents < 10) {
+                line.append('0');
+            }
+            line.append(cents);
+        }
+    }
+
+    private static double checkRatio(double ratio) {
+        if (ratio < 0 || ratio > 1) {
+            throw new IllegalArgumentException("Доля должна быть в диапазоне [0, 1]: " + ratio);
+        }
+        return ratio;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Использование: PeopleCsvGenerator <файл> <строк> [seed]");
+            return;
+        }
+        PeopleCsvGenerator generator = new PeopleCsvGenerator();
+        if (args.length > 2) {
+            generator.withSeed(Long.parseLong(args[2]));
+        }
+        long badRows = generator.generate(Path.of(args[0]), Long.parseLong(args[1]));
+        System.out.printf("Сгенерировано строк: %s, из них с некорректной датой: %d%n", args[1], badRows);
+    }
+}
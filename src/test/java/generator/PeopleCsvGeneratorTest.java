@@ -0,0 +1,49 @@
+package generator;
+
+import models.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.impl.CSVReaderServiceImpl;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeopleCsvGeneratorTest {
+
+    @Test
+    void testGenerate_SameSeedProducesSameContent() throws IOException {
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+
+        new PeopleCsvGenerator().withSeed(7).generate(first, 1000);
+        new PeopleCsvGenerator().withSeed(7).generate(second, 1000);
+
+        assertEquals(first.toString(), second.toString());
+        assertEquals(1001, first.toString().lines().count());
+        assertTrue(first.toString().startsWith("id;name;gender;BirtDate;Division;Salary\n"));
+    }
+
+    @Test
+    void testGenerate_ServiceRejectsOnlyBadDates(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("people.csv");
+        PeopleCsvGenerator generator = new PeopleCsvGenerator()
+                .withBadDateRatio(0.1)
+                .withCommaSalaryRatio(0.2)
+                .withUnknownGenderRatio(0.1)
+                .withQuotedFieldRatio(0.1);
+        long badRows = generator.generate(csv, 5000);
+
+        List<Person> people = new CSVReaderServiceImpl().readPeopleFromCSV(csv.toString());
+        long streamed = new CSVReaderServiceImpl().forEach(csv.toString(), row -> { });
+
+        assertTrue(badRows > 0);
+        assertEquals(5000 - badRows, people.size());
+        assertEquals(people.size(), streamed);
+        assertTrue(people.stream().anyMatch(p -> p.getName().contains("; ")));
+        assertTrue(people.stream().anyMatch(p -> p.getSalary().scale() > 0));
+    }
+}
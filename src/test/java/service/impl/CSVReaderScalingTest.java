@@ -0,0 +1,154 @@
+package service.impl;
+
+import generator.PeopleCsvGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сквозной тест масштабирования: генерирует файлы нескольких размеров и для каждого
+ * записывает пропускную способность, пиковое использование кучи и время GC.
+ * <p>
+ * Запускается отдельно: {@code mvn test -Pscaling}. Размеры задаются свойством
+ * {@code -Dscaling.sizes=10000,1000000,100000000}; списочный режим держит все строки
+ * в памяти, поэтому для него есть отдельный предел {@code -Dscaling.listMaxRows}.
+ * Тест падает, если время на строку на самом большом файле превышает время
+ * на самом маленьком более чем в {@code scaling.maxSlowdown} раз.
+ * </p>
+ */
+@Tag("scaling")
+class CSVReaderScalingTest {
+
+    private static final long[] SIZES = Arrays.stream(
+                    System.getProperty("scaling.sizes", "10000,100000,1000000").split(","))
+            .map(String::trim)
+            .mapToLong(Long::parseLong)
+            .sorted()
+            .toArray();
+    private static final long LIST_MODE_MAX_ROWS = Long.getLong("scaling.listMaxRows", 1_000_000L);
+    private static final double MAX_SLOWDOWN = Double.parseDouble(System.getProperty("scaling.maxSlowdown", "3.0"));
+    private static final Path REPORT = Path.of(System.getProperty("scaling.report", "target/scaling-report.csv"));
+
+    @TempDir
+    static Path tempDir;
+
+    @Test
+    void testForEach_ScalesLinearly() throws Exception {
+        List<Measurement> results = new ArrayList<>();
+        for (long rows : SIZES) {
+            Path csv = tempDir.resolve("people-" + rows + ".csv");
+            long expected = rows - new PeopleCsvGenerator().generate(csv, rows);
+
+            CSVReaderServiceImpl service = new CSVReaderServiceImpl();
+            service.forEach(csv.toString(), row -> { }); // Прогрев JIT
+            Measurement measurement = measure("forEach", rows, () -> service.forEach(csv.toString(), row -> { }));
+
+            assertEquals(expected, measurement.accepted());
+            results.add(measurement);
+            Files.delete(csv);
+        }
+        assertLinear(results);
+    }
+
+    @Test
+    void testReadPeopleFromCSV_ScalesLinearly() throws Exception {
+        List<Measurement> results = new ArrayList<>();
+        for (long rows : SIZES) {
+            if (rows > LIST_MODE_MAX_ROWS) {
+                continue;
+            }
+            Path csv = tempDir.resolve("people-" + rows + ".csv");
+            long expected = rows - new PeopleCsvGenerator().generate(csv, rows);
+
+            CSVReaderServiceImpl service = new CSVReaderServiceImpl();
+            service.readPeopleFromCSV(csv.toString()); // Прогрев JIT
+            Measurement measurement = measure("readPeopleFromCSV", rows,
+                    () -> (long) service.readPeopleFromCSV(csv.toString()).size());
+
+            assertEquals(expected, measurement.accepted());
+            results.add(measurement);
+            Files.delete(csv);
+        }
+        assertLinear(results);
+    }
+
+    private static Measurement measure(String mode, long rows, LoadAction action) throws Exception {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcBefore = totalGcMillis();
+
+        long start = System.nanoTime();
+        long accepted = action.run();
+        long nanos = System.nanoTime() - start;
+
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        Measurement measurement = new Measurement(mode, rows, accepted, nanos, peakHeap, totalGcMillis() - gcBefore);
+        report(measurement);
+        return measurement;
+    }
+
+    private static long totalGcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(time -> time > 0)
+                .sum();
+    }
+
+    private static void report(Measurement m) throws IOException {
+        System.out.printf("%-18s | строк: %,12d | %,12.0f строк/с | %8.1f нс/строку | пик кучи: %,8d МБ | GC: %,6d мс%n",
+                m.mode(), m.rows(), m.rowsPerSecond(), m.nanosPerRow(), m.peakHeapBytes() >> 20, m.gcMillis());
+
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        if (!Files.exists(REPORT)) {
+            Files.writeString(REPORT, "mode;rows;accepted;nanos;rowsPerSecond;peakHeapBytes;gcMillis\n",
+                    StandardCharsets.UTF_8);
+        }
+        Files.writeString(REPORT, String.format("%s;%d;%d;%d;%.0f;%d;%d%n", m.mode(), m.rows(), m.accepted(),
+                        m.nanos(), m.rowsPerSecond(), m.peakHeapBytes(), m.gcMillis()),
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private static void assertLinear(List<Measurement> results) {
+        if (results.size() < 2) {
+            return;
+        }
+        Measurement smallest = results.get(0);
+        Measurement largest = results.get(results.size() - 1);
+        assertTrue(largest.nanosPerRow() <= smallest.nanosPerRow() * MAX_SLOWDOWN,
+                String.format("Нелинейный рост: %.1f нс/строку на %d строках против %.1f нс/строку на %d строках",
+                        largest.nanosPerRow(), largest.rows(), smallest.nanosPerRow(), smallest.rows()));
+    }
+
+    @FunctionalInterface
+    private interface LoadAction {
+        long run() throws Exception;
+    }
+
+    private record Measurement(String mode, long rows, long accepted, long nanos, long peakHeapBytes, long gcMillis) {
+        double nanosPerRow() {
+            return rows == 0 ? 0 : (double) nanos / rows;
+        }
+
+        double rowsPerSecond() {
+            return nanos == 0 ? 0 : rows * 1e9 / nanos;
+        }
+    }
+}
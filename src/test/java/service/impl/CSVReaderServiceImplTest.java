@@ -1,17 +1,29 @@
 package service.impl;
 
+import generator.PeopleCsvGenerator;
+import models.CsvProfile;
 import models.Department;
 import models.Person;
 import models.enums.Gender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.DuplicatePolicy;
+import service.PersonOrder;
 
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -95,4 +107,256 @@ class CSVReaderServiceImplTest {
         // Дополнительно: можно проверить cause
         assertTrue(exception.getCause() instanceof FileNotFoundException);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReadPeopleFromCSV_FirstWins_KeepsFirstRow() throws IOException {
+        List<Person> people = service.readPeopleFromCSV("people_duplicates.csv", DuplicatePolicy.FIRST_WINS);
+
+        assertEquals(3, people.size());
+        assertEquals("Anna", people.get(0).getName());
+        assertEquals(new BigDecimal("3000"), people.get(0).getSalary());
+    }
+
+    @Test
+    void testReadPeopleFromCSV_LastWins_UpsertsAcrossFiles() throws IOException {
+        List<Person> people = service.readPeopleFromCSV(
+                List.of("people_duplicates.csv", "people_duplicates_update.csv"), DuplicatePolicy.LAST_WINS);
+
+        assertEquals(4, people.size());
+        assertEquals("Anna Upd", people.get(0).getName());
+        assertEquals("Boris New", people.get(1).getName());
+        assertEquals("Отдел C", people.get(1).getDepartment().getName());
+        assertEquals(3L, people.get(3).getId());
+    }
+
+    @Test
+    void testReadPeopleFromCSV_Reject_ThrowsOnDuplicate() {
+        IOException exception = assertThrows(IOException.class, () ->
+                service.readPeopleFromCSV("people_duplicates.csv", DuplicatePolicy.REJECT));
+
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertTrue(exception.getMessage().contains("Дубликат ID 1"));
+    }
+
+    @Test
+    void testReadPeopleFromCSV_GeneratedIdDoesNotCollide() throws IOException {
+        List<Person> people = service.readPeopleFromCSV("people_duplicates.csv", DuplicatePolicy.FIRST_WINS);
+
+        Person generated = people.get(2);
+        assertEquals("Vera", generated.getName());
+        assertTrue(generated.getId() >= CSVReaderServiceImpl.GENERATED_ID_BASE);
+    }
+
+    @Test
+    void testReadPeopleFromCSV_BuiltinValidationMatchesBeanValidation() throws IOException {
+        CSVReaderServiceImpl builtin = new CSVReaderServiceImpl(false);
+
+        for (String file : List.of("people.csv", "people_quoted.csv", "people_salary_formats.csv")) {
+            // Подразделения у сервисов разные, поэтому сравниваем принятые строки по ID
+            assertEquals(service.readPeopleFromCSV(file).stream().map(Person::getId).toList(),
+                    builtin.readPeopleFromCSV(file).stream().map(Person::getId).toList(), file);
+        }
+    }
+
+    @Test
+    void testForEach_MatchesListMode() throws IOException {
+        List<Person> expected = service.readPeopleFromCSV("people.csv");
+        List<Person> streamed = new ArrayList<>();
+
+        long count = service.forEach("people.csv", row -> streamed.add(row.toPerson()));
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    void testForEach_ConsumerExceptionIsNotWrapped() {
+        IllegalStateException failure = new IllegalStateException("ошибка потребителя");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+                service.forEach("people_quoted.csv", row -> {
+                    throw failure;
+                }));
+
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void testForEach_QuotedFieldsAndInvalidRows() throws IOException {
+        List<Person> streamed = new ArrayList<>();
+
+        long count = service.forEach("people_quoted.csv", row -> streamed.add(row.toPerson()));
+
+        assertEquals(2, count);
+        assertEquals("Smith; John", streamed.get(0).getName());
+        assertEquals(new BigDecimal("1200.50"), streamed.get(0).getSalary());
+        assertEquals(LocalDate.of(1980, 1, 2), streamed.get(0).getBirthDate());
+        assertEquals("Anna \"Ann\" Lee", streamed.get(1).getName());
+        assertEquals("Отдел B", streamed.get(1).getDepartment().getName());
+    }
+
+    @Test
+    void testForEach_TrailingBackslashDoesNotJoinLines() throws IOException {
+        List<Person> expected = service.readPeopleFromCSV("people_backslash.csv");
+        List<Person> streamed = new ArrayList<>();
+
+        long count = service.forEach("people_backslash.csv", row -> streamed.add(row.toPerson()));
+
+        assertEquals(3, expected.size());
+        assertEquals(3, count);
+        assertEquals("Boris", streamed.get(1).getName());
+        assertEquals(expected.get(2).getName(), streamed.get(2).getName());
+    }
+
+    @Test
+    void testForEach_SalaryOutsideFastFormatMatchesListMode() throws IOException {
+        List<Person> expected = service.readPeopleFromCSV("people_salary_formats.csv");
+        List<Person> streamed = new ArrayList<>();
+
+        long count = service.forEach("people_salary_formats.csv", row -> streamed.add(row.toPerson()));
+
+        assertEquals(3, expected.size());
+        assertEquals(expected.size(), count);
+        assertEquals(expected.get(0).getSalary(), streamed.get(0).getSalary());
+        assertEquals(expected.get(1).getSalary(), streamed.get(1).getSalary());
+        // 20 цифр не помещаются в long: значение то же, но без незначащих нулей
+        assertEquals(0, expected.get(2).getSalary().compareTo(streamed.get(2).getSalary()));
+    }
+
+    @Test
+    void testProfile_SmallFileIsScannedExactly() throws IOException {
+        CsvProfile profile = service.profile("people.csv", 100_000, Duration.ofSeconds(30));
+
+        assertTrue(profile.isExact());
+        assertEquals(CsvProfile.Method.SEQUENTIAL, profile.getMethod());
+        assertEquals(25898, profile.getSampledRows());
+        assertEquals(25898, profile.getEstimatedRowCount());
+        assertEquals(15, profile.getEstimatedDepartments());
+        assertEquals(25898L, profile.getDateFormats().get("dd.MM.yyyy"));
+        assertEquals(0.0, profile.getColumnErrorRates().get("Salary"));
+    }
+
+    @Test
+    void testProfile_ExactScanCountsEveryRow(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("rare.csv");
+        StringBuilder content = new StringBuilder("id;name;gender;BirtDate;Division;Salary\n");
+        for (int i = 1; i <= 20_000; i++) {
+            content.append(i).append(";Name;Male;01.01.1980;").append(i == 20_000 ? "Z" : "A").append(";1000\n");
+        }
+        Files.writeString(csv, content);
+
+        CsvProfile profile = service.profile(csv.toString(), 20_000, Duration.ofSeconds(30));
+
+        assertTrue(profile.isExact());
+        assertEquals(20_000, profile.getSampledRows());
+        assertEquals(2, profile.getEstimatedDepartments());
+    }
+
+    @Test
+    void testProfile_SequentialScanStopsAtRowLimit() throws IOException {
+        CsvProfile profile = service.profile("people.csv", 1000, Duration.ofSeconds(30));
+
+        assertFalse(profile.isExact());
+        assertEquals(CsvProfile.Method.SEQUENTIAL, profile.getMethod());
+        assertEquals(1000, profile.getSampledRows());
+        // Экстраполяция по байтам занижена на опережающее чтение буферов
+        assertEquals(25898, profile.getEstimatedRowCount(), 25898 * 0.15);
+    }
+
+    @Test
+    void testProfile_LargeFileIsSampledBySeeking(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("large.csv");
+        long badRows = new PeopleCsvGenerator().withBadDateRatio(0.1).generate(csv, 400_000);
+
+        CsvProfile profile = service.profile(csv.toString(), 2000, Duration.ofSeconds(30));
+
+        assertFalse(profile.isExact());
+        assertEquals(CsvProfile.Method.RANDOM_SEEK, profile.getMethod());
+        assertEquals(2000, profile.getSampledRows());
+        assertEquals(400_000, profile.getEstimatedRowCount(), 400_000 * 0.05);
+        assertEquals((double) badRows / 400_000, profile.getColumnErrorRates().get("BirtDate"), 0.03);
+        assertEquals(15, profile.getEstimatedDepartments());
+    }
+
+    @Test
+    void testProfile_SeekingIsNotBiasedByLineLength(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("skewed.csv");
+        String longName = "N".repeat(500);
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("id;name;gender;BirtDate;Division;Salary\n");
+            // Каждая короткая строка идёт после длинной: при выборе по смещению она выпадала бы в 10 раз чаще
+            for (int i = 1; i <= 40_000; i++) {
+                writer.write(i + ";" + (i % 2 == 0 ? "Name" : longName) + ";Male;01.01.1980;A;1000\n");
+            }
+        }
+
+        CsvProfile profile = service.profile(csv.toString(), 2000, Duration.ofSeconds(30));
+
+        assertEquals(CsvProfile.Method.RANDOM_SEEK, profile.getMethod());
+        assertEquals(0.5, profile.getColumnErrorRates().get("name"), 0.05);
+        assertEquals(40_000, profile.getEstimatedRowCount(), 40_000 * 0.05);
+    }
+
+    @Test
+    void testSortPeople_SpillsToDiskAndMatchesInMemorySort() throws IOException {
+        Comparator<Person> order = PersonOrder.SALARY.descending();
+        List<Person> expected = new ArrayList<>(service.readPeopleFromCSV("people.csv"));
+        expected.sort(order);
+        List<Person> sorted = new ArrayList<>();
+
+        long count = service.sortPeople("people.csv", order, ExternalPersonSorter.MIN_MEMORY_BUDGET_BYTES, sorted::add);
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected, sorted);
+    }
+
+    @Test
+    void testTopKPerDepartment_MatchesFullSort() throws IOException {
+        Comparator<Person> order = PersonOrder.SALARY.descending();
+        Map<Department, List<Person>> expected = service.readPeopleFromCSV("people.csv").stream()
+                .collect(Collectors.groupingBy(Person::getDepartment, Collectors.collectingAndThen(
+                        Collectors.toList(), list -> list.stream().sorted(order).limit(5).toList())));
+
+        Map<Department, List<Person>> top = service.topKPerDepartment("people.csv", order, 5);
+
+        assertEquals(15, top.size());
+        assertEquals(expected, top);
+        assertEquals("Отдел A", top.keySet().iterator().next().getName());
+    }
+
+    @Test
+    void testTopK_ReturnsOldestFirst() throws IOException {
+        List<Person> oldest = service.topK("people.csv", PersonOrder.BIRTH_DATE.ascending(), 3);
+
+        List<Person> expected = service.readPeopleFromCSV("people.csv").stream()
+                .sorted(PersonOrder.BIRTH_DATE.ascending())
+                .limit(3)
+                .toList();
+        assertEquals(expected, oldest);
+    }
+
+    @Test
+    void testTopK_RowOrderMatchesPersonOrder() throws IOException {
+        List<Person> people = service.readPeopleFromCSV("people.csv");
+        List<Comparator<Person>> orders = new ArrayList<>();
+        for (PersonOrder order : PersonOrder.values()) {
+            orders.add(order.ascending());
+            orders.add(order.descending());
+        }
+        // Порядок не из PersonOrder сравнивается через Person
+        orders.add(Comparator.comparing(Person::getName).thenComparing(Person::getId));
+
+        for (Comparator<Person> order : orders) {
+            List<Person> expected = people.stream().sorted(order).limit(10).toList();
+            assertEquals(expected, service.topK("people.csv", order, 10));
+        }
+    }
+
+    @Test
+    void testTopK_ComparesSalariesOfDifferentScales() throws IOException {
+        List<Person> top = service.topK("people_salary_formats.csv", PersonOrder.SALARY.descending(), 2);
+
+        // 1.2E3 и +1200 равны, тогда решает ID
+        assertEquals(List.of(30L, 31L), top.stream().map(Person::getId).toList());
+    }
+}
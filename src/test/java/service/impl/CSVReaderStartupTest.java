@@ -0,0 +1,90 @@
+package service.impl;
+
+import generator.PeopleCsvGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Замер времени запуска: каждая попытка — отдельная JVM ({@link StartupProbe}),
+ * которая загружает небольшой файл; записывается время от старта процесса
+ * до первого готового Person.
+ * <p>
+ * Запускается отдельно: {@code mvn test -Pstartup}. Число попыток задаётся
+ * {@code -Dstartup.runs}, дополнительные флаги JVM (например, архив AppCDS) —
+ * {@code -Dstartup.jvmArgs="-XX:SharedArchiveFile=target/csv-reader.jsa"}.
+ * </p>
+ */
+@Tag("startup")
+class CSVReaderStartupTest {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final int ROWS = Integer.getInteger("startup.rows", 100);
+    private static final List<String> JVM_ARGS = Arrays.stream(System.getProperty("startup.jvmArgs", "").split("\\s+"))
+            .filter(arg -> !arg.isEmpty())
+            .toList();
+
+    @TempDir
+    static Path tempDir;
+
+    @Test
+    void testBuiltinValidation_ReachesFirstPersonFaster() throws Exception {
+        Path csv = tempDir.resolve("small.csv");
+        new PeopleCsvGenerator().generate(csv, ROWS);
+
+        long bean = medianMillis("list-bean", csv);
+        long builtin = medianMillis("list-builtin", csv);
+        long streamed = medianMillis("forEach", csv);
+
+        System.out.printf("Время до первого Person (медиана из %d запусков, %d строк): " +
+                "Hibernate Validator %d мс | встроенные проверки %d мс | forEach %d мс%n",
+                RUNS, ROWS, bean, builtin, streamed);
+
+        assertTrue(builtin < bean,
+                "Встроенные проверки должны запускаться быстрее Hibernate Validator: " + builtin + " >= " + bean);
+    }
+
+    private static long medianMillis(String mode, Path csv) throws Exception {
+        long[] results = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            results[i] = runProbe(mode, csv);
+        }
+        Arrays.sort(results);
+        return results[RUNS / 2];
+    }
+
+    private static long runProbe(String mode, Path csv) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(JVM_ARGS);
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"),
+                StartupProbe.class.getName(), mode, csv.toString()));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Long result = null;
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith(StartupProbe.RESULT_PREFIX)) {
+                    result = Long.parseLong(line.substring(StartupProbe.RESULT_PREFIX.length()));
+                }
+            }
+        }
+
+        assertEquals(0, process.waitFor(), "Процесс замера завершился с ошибкой в режиме " + mode);
+        assertNotNull(result, "Процесс замера не вывел результат в режиме " + mode);
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package service.impl;
+
+import models.Department;
+import models.Person;
+import models.enums.Gender;
+import org.junit.jupiter.api.Test;
+import service.PersonOrder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalPersonSorterTest {
+
+    @Test
+    void testFinish_MultiPassMergeMatchesInMemorySort() throws IOException {
+        Department department = new Department("Отдел A");
+        SplittableRandom random = new SplittableRandom(1);
+        List<Person> people = new ArrayList<>();
+        for (long id = 1; id <= 20_000; id++) {
+            people.add(new Person(id, "Name" + id, Gender.FEMALE, department,
+                    BigDecimal.valueOf(random.nextInt(50) * 100L), LocalDate.of(1980, 1, 1)));
+        }
+        List<Person> expected = new ArrayList<>(people);
+        expected.sort(PersonOrder.SALARY.ascending());
+        List<Person> sorted = new ArrayList<>();
+
+        try (ExternalPersonSorter sorter = new ExternalPersonSorter(
+                PersonOrder.SALARY.ascending(), ExternalPersonSorter.MIN_MEMORY_BUDGET_BYTES, 2)) {
+            for (Person person : people) {
+                sorter.add(person);
+            }
+            long count = sorter.finish(Map.of(department.getId(), department), sorted::add);
+
+            assertTrue(sorter.spilledRuns() > 2);
+            assertEquals(people.size(), count);
+        }
+
+        assertEquals(expected, sorted);
+    }
+
+    @Test
+    void testConstructor_IoBuffersFitBudget() {
+        long budget = ExternalPersonSorter.MIN_MEMORY_BUDGET_BYTES;
+
+        ExternalPersonSorter sorter = new ExternalPersonSorter(PersonOrder.ID.ascending(), budget);
+        // 64 прогона и выходной файл при слиянии
+        assertTrue(65L * sorter.ioBufferSize() <= budget);
+
+        ExternalPersonSorter wide = new ExternalPersonSorter(PersonOrder.ID.ascending(), budget, 10_000);
+        assertEquals(4096, wide.ioBufferSize());
+    }
+
+    @Test
+    void testConstructor_RejectsTooSmallBudget() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new ExternalPersonSorter(PersonOrder.ID.ascending(), 1024));
+    }
+}
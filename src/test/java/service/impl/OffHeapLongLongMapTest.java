@@ -0,0 +1,56 @@
+package service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLongLongMapTest {
+
+    @Test
+    void testPutAndGet_SurvivesResize() {
+        try (OffHeapLongLongMap map = new OffHeapLongLongMap(16)) {
+            for (long key = 1; key <= 100_000; key++) {
+                assertEquals(OffHeapLongLongMap.NO_VALUE, map.putIfAbsent(key, key * 2));
+            }
+
+            assertEquals(100_000, map.size());
+            for (long key = 1; key <= 100_000; key++) {
+                assertEquals(key * 2, map.get(key));
+            }
+            assertEquals(OffHeapLongLongMap.NO_VALUE, map.get(100_001));
+        }
+    }
+
+    @Test
+    void testPutIfAbsent_KeepsExistingValue() {
+        try (OffHeapLongLongMap map = new OffHeapLongLongMap(16)) {
+            map.putIfAbsent(42, 1);
+
+            assertEquals(1, map.putIfAbsent(42, 2));
+            assertEquals(1, map.get(42));
+            assertEquals(1, map.put(42, 3));
+            assertEquals(3, map.get(42));
+            assertEquals(1, map.size());
+        }
+    }
+
+    @Test
+    void testClose_RejectsFurtherAccess() {
+        OffHeapLongLongMap map = new OffHeapLongLongMap(16);
+        map.put(1, 1);
+
+        map.close();
+        map.close();
+
+        assertEquals(0, map.size());
+        assertThrows(IllegalStateException.class, () -> map.get(1));
+    }
+
+    @Test
+    void testNonPositiveKey_ThrowsIllegalArgumentException() {
+        try (OffHeapLongLongMap map = new OffHeapLongLongMap(16)) {
+            assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+            assertThrows(IllegalArgumentException.class, () -> map.get(-5));
+        }
+    }
+}
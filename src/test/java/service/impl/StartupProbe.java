@@ -0,0 +1,47 @@
+package service.impl;
+
+import models.Person;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Точка входа для отдельной JVM в {@link CSVReaderStartupTest}: загружает файл
+ * и печатает время от старта процесса до первого готового {@link Person}.
+ * <p>
+ * Аргументы: режим ({@code list-bean}, {@code list-builtin}, {@code forEach}) и путь к файлу.
+ * В списочном режиме первый Person доступен только после загрузки всего файла.
+ * </p>
+ */
+class StartupProbe {
+
+    static final String RESULT_PREFIX = "FIRST_PERSON_MS=";
+
+    public static void main(String[] args) throws Exception {
+        String mode = args[0];
+        String csvFilePath = args[1];
+        AtomicLong firstPersonAt = new AtomicLong();
+
+        switch (mode) {
+            case "list-bean", "list-builtin" -> {
+                List<Person> people = new CSVReaderServiceImpl("list-bean".equals(mode)).readPeopleFromCSV(csvFilePath);
+                firstPersonAt.set(System.currentTimeMillis());
+                if (people.isEmpty()) {
+                    throw new IllegalStateException("Файл не содержит корректных строк: " + csvFilePath);
+                }
+            }
+            case "forEach" -> new CSVReaderServiceImpl(false).forEach(csvFilePath, row -> {
+                if (firstPersonAt.get() == 0) {
+                    row.toPerson();
+                    firstPersonAt.set(System.currentTimeMillis());
+                }
+            });
+            default -> throw new IllegalArgumentException("Неизвестный режим: " + mode);
+        }
+
+        Instant processStart = ProcessHandle.current().info().startInstant()
+                .orElseThrow(() -> new IllegalStateException("Время старта процесса недоступно"));
+        System.out.println(RESULT_PREFIX + (firstPersonAt.get() - processStart.toEpochMilli()));
+    }
+}